@@ -0,0 +1,70 @@
+package controller;
+
+import solver.SearchControl;
+
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+
+/**
+ * Controller work running off the caller's thread, typically the Swing EDT.
+ * Progress (nodes searched, elapsed time) is read from the SearchControl the
+ * work reports into. Results arrive through getFuture(), on the worker thread,
+ * so a UI must hop back onto its own thread before touching components.
+ */
+public class BackgroundTask<T> {
+
+    @FunctionalInterface
+    public interface Work<T> {
+        T run(SearchControl control) throws Exception;
+    }
+
+    private final SearchControl control = new SearchControl();
+    private final CompletableFuture<T> future = new CompletableFuture<>();
+
+    private BackgroundTask() {
+    }
+
+    static <T> BackgroundTask<T> start(Executor executor, Work<T> work) {
+        BackgroundTask<T> task = new BackgroundTask<>();
+
+        executor.execute(() -> {
+            try {
+                task.future.complete(work.run(task.control));
+            } catch (Throwable e) {
+                task.future.completeExceptionally(e);
+            }
+        });
+
+        return task;
+    }
+
+    /**
+     * Asks the work to stop and completes the future with a CancellationException
+     * straight away; work that does not poll the control finishes unseen.
+     */
+    public void cancel() {
+        control.cancel();
+        future.completeExceptionally(new CancellationException("Cancelled"));
+    }
+
+    public boolean isCancelled() {
+        return control.isCancelled();
+    }
+
+    public boolean isDone() {
+        return future.isDone();
+    }
+
+    public long getNodes() {
+        return control.getNodes();
+    }
+
+    public long getElapsedMillis() {
+        return control.getElapsedMillis();
+    }
+
+    public CompletableFuture<T> getFuture() {
+        return future;
+    }
+}
@@ -0,0 +1,17 @@
+package controller;
+
+import verifier.InvalidCells;
+
+/**
+ * Told about every change to the current board, on the thread that made it.
+ * Only the cells whose conflict state flipped are passed, so a view can
+ * repaint just those.
+ */
+@FunctionalInterface
+public interface BoardListener {
+
+    void cellChanged(int row, int col, int value,
+                     InvalidCells becameInvalid,
+                     InvalidCells becameValid,
+                     int emptyCells);
+}
@@ -2,9 +2,12 @@ package controller;
 
 import controller.exceptions.*;
 import model.*;
+import solver.Hint;
+import verifier.InvalidCells;
 import view.*;
 
 import java.io.IOException;
+import java.util.Map;
 
 public class ControllerAdapter implements Viewable, Controllable {
 
@@ -69,6 +72,12 @@ public class ControllerAdapter implements Viewable, Controllable {
         controller.driveGames(sourcePath);
     }
 
+    @Override
+    public void driveGames()
+            throws SolutionInvalidException {
+        controller.driveGames();
+    }
+
     @Override
     public boolean[][] verifyGame(int[][] game) {
         return controller.verifyGame(game);
@@ -86,6 +95,21 @@ public class ControllerAdapter implements Viewable, Controllable {
         controller.logUserAction(userAction);
     }
 
+    @Override
+    public int getCandidates(int row, int col) {
+        return controller.getCandidates(row, col);
+    }
+
+    @Override
+    public int[][] getCandidateGrid() {
+        return controller.getCandidateGrid();
+    }
+
+    @Override
+    public Hint nextHint() {
+        return controller.nextHint();
+    }
+
     //  Extra
 
     public int[][] getCurrentBoard() {
@@ -106,6 +130,62 @@ public class ControllerAdapter implements Viewable, Controllable {
         return controller.undo();
     }
 
+    public BackgroundTask<int[][]> solveGameAsync(int[][] board) {
+        return controller.solveGameAsync(board);
+    }
+
+    public BackgroundTask<boolean[][]> verifyGameAsync(int[][] board) {
+        return controller.verifyGameAsync(board);
+    }
+
+    public BackgroundTask<Void> driveGamesAsync() {
+        return controller.driveGamesAsync();
+    }
+
+    public void addBoardListener(BoardListener listener) {
+        controller.addBoardListener(listener);
+    }
+
+    public InvalidCells getInvalidCells() {
+        return controller.getInvalidCells();
+    }
+
+    public int getEmptyCount() {
+        return controller.getEmptyCount();
+    }
+
+    public boolean hasConflicts() {
+        return controller.hasConflicts();
+    }
+
+    public boolean canRedo() {
+        return controller.canRedo();
+    }
+
+    public UserAction redo()
+            throws IOException {
+        return controller.redo();
+    }
+
+    public UserAction[] jumpTo(int node)
+            throws IOException {
+        return controller.jumpTo(node);
+    }
+
+    public int getHistoryNode() {
+        return controller.getHistoryNode();
+    }
+
+    public void flush()
+            throws IOException {
+        controller.flush();
+    }
+
+    public void close()
+            throws IOException {
+        controller.close();
+    }
+
     public void checkCompletion(int[][] board) {
         controller.checkCompletion(board);
     }
@@ -114,4 +194,17 @@ public class ControllerAdapter implements Viewable, Controllable {
             throws NotFoundException {
         return controller.getCurrentGame();
     }
+
+    public int driveBatch(String sourcePath,
+                          int count,
+                          Map<DifficultyEnum, Double> mix)
+            throws SolutionInvalidException {
+        return controller.driveBatch(sourcePath, count, mix);
+    }
+
+    public int driveBatch(int count,
+                          Map<DifficultyEnum, Double> mix)
+            throws SolutionInvalidException {
+        return controller.driveBatch(count, mix);
+    }
 }
\ No newline at end of file
@@ -1,32 +1,67 @@
 package controller;
 
 import model.*;
+import generator.BatchGenerator;
 import generator.GameGenerator;
-import storage.StorageManager;
+import generator.SolvedGridGenerator;
+import storage.BoardFiles;
+import storage.MappedFileStorage;
+import storage.Storage;
 import storage.UndoManager;
 import verifier.*;
 import controller.exceptions.*;
 import view.Controllable;
 import view.UserAction;
-import solver.ParallelPermutationSolver;
+import solver.CandidateEngine;
+import solver.Hint;
+import solver.SearchControl;
+import solver.SolverSelector;
 
 import java.io.IOException;
+import java.nio.file.Paths;
+import java.util.EnumMap;
+import java.util.List;
 import java.util.Map;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
 
 public class ControllerFacade implements Viewable, Controllable {
 
-    private final GameGenerator generator = new GameGenerator();
-    private final SudokuVerifier verifier = new SudokuVerifier();
-    private final ParallelPermutationSolver solver = new ParallelPermutationSolver();
+    // Shared by every facade, so background work never runs on the caller's thread
+    private static final ExecutorService BACKGROUND = Executors.newCachedThreadPool(r -> {
+        Thread t = new Thread(r, "controller-worker");
+        t.setDaemon(true);
+        return t;
+    });
+
+    // Stateless or thread safe, so sessions share them; each facade only holds its own game
+    private static final SudokuVerifier verifier = new SudokuVerifier();
+    private static final SolverSelector solvers = new SolverSelector();
+
+    private final ConflictTracker liveBoard = new ConflictTracker();
+    private final CandidateEngine candidates = new CandidateEngine(liveBoard);
+    private final List<BoardListener> listeners = new CopyOnWriteArrayList<>();
+    private final Storage storage;
+    private final UndoManager undoManager;
     private Game currentGame;
     private DifficultyEnum currentDifficulty;
 
+    public ControllerFacade() {
+        this(new MappedFileStorage(Paths.get("storage")));
+    }
+
+    public ControllerFacade(Storage storage) {
+        this.storage = storage;
+        this.undoManager = new UndoManager(storage);
+    }
+
     // ================== Catalog ==================
 
     @Override
     public Catalog getCatalog() {
-        boolean hasCurrent = StorageManager.hasCurrentGame();
-        boolean hasAll = StorageManager.hasAllDifficultyGames();
+        boolean hasCurrent = storage.hasCurrentGame();
+        boolean hasAll = storage.hasAllDifficultyGames();
         return new Catalog(hasCurrent, hasAll);
     }
 
@@ -41,16 +76,26 @@ public class ControllerFacade implements Viewable, Controllable {
 
     // ================== Game Generation ==================
 
+    // Generators hold mutable search and random state, so every call,
+    // synchronous or in the background, builds its own
+
     @Override
     public void driveGames(String sourcePath)
             throws SolutionInvalidException {
 
         int[][] solvedBoard =
-                StorageManager.loadSolvedBoard(sourcePath);
+                BoardFiles.load(sourcePath);
 
         driveGames(new Game(solvedBoard));
     }
 
+    @Override
+    public void driveGames()
+            throws SolutionInvalidException {
+
+        driveGames(new Game(new SolvedGridGenerator().generate()));
+    }
+
     @Override
     public void driveGames(Game sourceGame)
             throws SolutionInvalidException {
@@ -63,10 +108,53 @@ public class ControllerFacade implements Viewable, Controllable {
                     "Provided solution is not valid");
 
         Map<DifficultyEnum, Game> games =
-                generator.generateFromSolved(
+                new GameGenerator().generateUniqueFromSolved(
                         sourceGame.getBoard());
 
-        StorageManager.saveGeneratedGames(games);
+        storage.saveGeneratedGames(games);
+    }
+
+    // Pre-builds count puzzles split across tiers by mix, e.g. {EASY=1, MEDIUM=2, HARD=1}
+    public int driveBatch(String sourcePath,
+                          int count,
+                          Map<DifficultyEnum, Double> mix)
+            throws SolutionInvalidException {
+
+        int[][] solvedBoard =
+                BoardFiles.load(sourcePath);
+
+        return new BatchGenerator().generate(
+                solvedBoard, count, mix,
+                storage::saveGeneratedGame);
+    }
+
+    public int driveBatch(int count,
+                          Map<DifficultyEnum, Double> mix)
+            throws SolutionInvalidException {
+
+        return new BatchGenerator().generate(
+                count, mix,
+                storage::saveGeneratedGame);
+    }
+
+    // Generates and stores one set of puzzles in the background, reporting no nodes.
+    // Cancelling is best-effort: it is polled between tiers and before the save,
+    // a cancel that lands once the save has begun still stores the set
+    public BackgroundTask<Void> driveGamesAsync() {
+        return BackgroundTask.start(BACKGROUND, control -> {
+            int[][] solved = new SolvedGridGenerator().generate();
+            GameGenerator generator = new GameGenerator();
+            Map<DifficultyEnum, Game> games = new EnumMap<>(DifficultyEnum.class);
+
+            for (DifficultyEnum level : DifficultyEnum.values()) {
+                control.checkCancelled();
+                games.put(level, new Game(generator.carveGraded(solved, level)));
+            }
+
+            control.checkCancelled();
+            storage.saveGeneratedGames(games);
+            return null;
+        });
     }
 
     // ================== Loading Games ==================
@@ -75,9 +163,11 @@ public class ControllerFacade implements Viewable, Controllable {
     public Game getGame(DifficultyEnum level)
             throws NotFoundException {
 
-        currentGame = StorageManager.loadGame(level);
+        undoManager.clearLog(); // Start fresh log, before the new board is written
+        currentGame = storage.loadGame(level);
         currentDifficulty = level;
-        UndoManager.clearLog(); // Start fresh log
+        liveBoard.load(currentGame.getBoard());
+        candidates.reset();
         return currentGame;
     }
 
@@ -96,9 +186,18 @@ public class ControllerFacade implements Viewable, Controllable {
     }
 
     public int[][] getCurrentGame() throws NotFoundException {
-        int[][] board = StorageManager.loadCurrentGame();
+        int[][] board = storage.loadCurrentGame();
+
+        try {
+            undoManager.replay(board);
+        } catch (IOException e) {
+            throw new NotFoundException("Failed to replay move log: " + e.getMessage());
+        }
+
         currentGame = new Game(board);
         currentDifficulty = null; // Unknown for resumed games
+        liveBoard.load(board);
+        candidates.reset();
         return board;
     }
 
@@ -117,7 +216,8 @@ public class ControllerFacade implements Viewable, Controllable {
         if (result == VerificationResult.VALID) {
             // Game completed successfully
             if (currentDifficulty != null) {
-                StorageManager.deleteSolvedGame(currentDifficulty);
+                undoManager.clearLog();
+                storage.deleteSolvedGame(currentDifficulty);
             }
             return "valid";
         }
@@ -132,8 +232,8 @@ public class ControllerFacade implements Viewable, Controllable {
         StringBuilder sb =
                 new StringBuilder("invalid");
 
-        for (String cell : invalid.getAll())
-            sb.append(" ").append(cell);
+        for (int i = invalid.nextCell(0); i >= 0; i = invalid.nextCell(i + 1))
+            sb.append(" ").append(i / 9).append(",").append(i % 9);
 
         return sb.toString();
     }
@@ -141,29 +241,50 @@ public class ControllerFacade implements Viewable, Controllable {
     @Override
     public boolean[][] verifyGame(int[][] board) {
 
-        boolean[][] ok = new boolean[9][9];
-
-        InvalidCells invalid =
-                verifier.findInvalidCells(board);
-
-        for (int r = 0; r < 9; r++)
-            for (int c = 0; c < 9; c++)
-                ok[r][c] = !invalid.contains(r, c);
+        return verifier.findInvalidCells(board).toValidityGrid();
+    }
 
-        return ok;
+    public BackgroundTask<boolean[][]> verifyGameAsync(int[][] board) {
+        int[][] snapshot = copyOf(board);
+        return BackgroundTask.start(BACKGROUND, control -> verifyGame(snapshot));
     }
 
     public void checkCompletion(int[][] board) {
-        VerificationResult result = verifier.verify(board);
+        // The live bitboard already tracks the current game move by move
+        VerificationResult result =
+                currentGame != null && board == currentGame.getBoard()
+                        ? liveBoard.result()
+                        : verifier.verify(board);
 
         if (result == VerificationResult.VALID) {
+            undoManager.clearLog(); // Lets pending moves drain before their files go away
             if (currentDifficulty != null) {
-                StorageManager.deleteSolvedGame(currentDifficulty);
+                storage.deleteSolvedGame(currentDifficulty);
             }
-            StorageManager.deleteCurrentGame();
+            storage.deleteCurrentGame();
         }
     }
 
+    // ================== Candidates / Hints ==================
+
+    @Override
+    public int getCandidates(int row, int col) {
+        return candidates.getCandidates(row, col);
+    }
+
+    @Override
+    public int[][] getCandidateGrid() {
+        return candidates.snapshot();
+    }
+
+    // No hint while the board has conflicts, the candidates would point the wrong way
+    @Override
+    public Hint nextHint() {
+        if (currentGame == null || liveBoard.hasConflicts())
+            return null;
+        return candidates.nextHint();
+    }
+
     // ================== Solver ==================
 
     @Override
@@ -173,17 +294,25 @@ public class ControllerFacade implements Viewable, Controllable {
         if (game == null)
             throw new InvalidGame("Game is null");
 
-        if (game.countEmptyCells() != 5)
-            throw new InvalidGame(
-                    "Solver works only with exactly 5 empty cells");
-
-        return solver.solve(game.getBoard());
+        return runSolver(game.getBoard(), game.countEmptyCells(), new SearchControl());
     }
 
     @Override
     public int[][] solveGame(int[][] board)
             throws InvalidGame {
 
+        return solveGame(board, new SearchControl());
+    }
+
+    // Solves a snapshot of board in the background, reporting nodes into the task
+    public BackgroundTask<int[][]> solveGameAsync(int[][] board) {
+        int[][] snapshot = copyOf(board);
+        return BackgroundTask.start(BACKGROUND, control -> solveGame(snapshot, control));
+    }
+
+    private int[][] solveGame(int[][] board, SearchControl control)
+            throws InvalidGame {
+
         if (board == null)
             throw new InvalidGame("Board is null");
 
@@ -193,14 +322,10 @@ public class ControllerFacade implements Viewable, Controllable {
                 if (board[r][c] == 0)
                     empty++;
 
-        if (empty != 5)
-            throw new InvalidGame(
-                    "Solver works only with exactly 5 empty cells");
-
-        int[] solution = solver.solve(board);
+        int[] solution = runSolver(board, empty, control);
 
-        int[][] result = new int[5][3];
-        for (int i = 0; i < 5; i++) {
+        int[][] result = new int[empty][3];
+        for (int i = 0; i < empty; i++) {
             result[i][0] = solution[i * 3];
             result[i][1] = solution[i * 3 + 1];
             result[i][2] = solution[i * 3 + 2];
@@ -209,14 +334,100 @@ public class ControllerFacade implements Viewable, Controllable {
         return result;
     }
 
-    // ================== Undo ==================
+    // The engine comes from the selector, -Dsudoku.solver overrides its choice
+    private int[] runSolver(int[][] board, int empty, SearchControl control)
+            throws InvalidGame {
+
+        if (empty == 0)
+            throw new InvalidGame("Board has no empty cells");
+
+        return solvers.select(empty).solve(board, control);
+    }
+
+    private static int[][] copyOf(int[][] board) {
+        if (board == null)
+            return null;
+
+        int[][] copy = new int[board.length][];
+        for (int r = 0; r < board.length; r++)
+            copy[r] = board[r].clone();
+        return copy;
+    }
+
+    // ================== Undo / Redo ==================
 
     public UserAction undo() throws IOException {
-        return UndoManager.undoLastMove();
+        UserAction action = undoManager.undoLastMove();
+        applyPatch(action);
+        return action;
     }
 
     public boolean canUndo() {
-        return UndoManager.canUndo();
+        return undoManager.canUndo();
+    }
+
+    public UserAction redo() throws IOException {
+        UserAction action = undoManager.redoMove();
+        applyPatch(action);
+        return action;
+    }
+
+    public boolean canRedo() {
+        return undoManager.canRedo();
+    }
+
+    // Switches to any point of the move history, branches included
+    public UserAction[] jumpTo(int node) throws IOException {
+        UserAction[] patches = undoManager.jumpTo(node);
+        for (UserAction patch : patches)
+            applyPatch(patch);
+        return patches;
+    }
+
+    public int getHistoryNode() {
+        return undoManager.currentNode();
+    }
+
+    private void applyPatch(UserAction action) {
+        place(action.getRow(), action.getCol(), action.getNewValue());
+    }
+
+    // ================== Live Conflicts ==================
+
+    public void addBoardListener(BoardListener listener) {
+        listeners.add(listener);
+    }
+
+    public void removeBoardListener(BoardListener listener) {
+        listeners.remove(listener);
+    }
+
+    // Conflicting cells of the current game, kept up to date move by move
+    public InvalidCells getInvalidCells() {
+        return liveBoard.getInvalidCells();
+    }
+
+    public int getEmptyCount() {
+        return liveBoard.countEmptyCells();
+    }
+
+    public boolean hasConflicts() {
+        return liveBoard.hasConflicts();
+    }
+
+    // Every change to the current board goes through here, so listeners see each one
+    private void place(int row, int col, int value) {
+        int old = currentGame.getBoard()[row][col];
+        currentGame.getBoard()[row][col] = value;
+
+        InvalidCells becameInvalid = new InvalidCells();
+        InvalidCells becameValid = new InvalidCells();
+        liveBoard.place(row, col, value, becameInvalid, becameValid);
+        candidates.cellChanged(row, col, old);
+
+        int empty = liveBoard.countEmptyCells();
+        for (BoardListener listener : listeners)
+            listener.cellChanged(row, col, value, becameInvalid, becameValid, empty);
     }
 
     // ================== Logging ==================
@@ -224,23 +435,35 @@ public class ControllerFacade implements Viewable, Controllable {
     @Override
     public void logUserAction(String userAction)
             throws IOException {
-        StorageManager.log(userAction);
+        try {
+            logUserAction(UserAction.fromString(userAction));
+        } catch (IllegalArgumentException | IndexOutOfBoundsException e) {
+            throw new IOException("Unknown user action: " + userAction);
+        }
     }
 
     @Override
     public void logUserAction(UserAction userAction)
             throws IOException {
-        StorageManager.log(userAction.toString());
+        // Journal and board cell are written behind by UndoManager's writer
+        undoManager.record(userAction);
+    }
 
-        if (userAction.getType() == UserAction.ActionType.MOVE) {
-            StorageManager.saveCurrentGame(currentGame.getBoard());
-        }
+    // Blocks until every move is on disk, called on exit
+    public void flush() throws IOException {
+        undoManager.flush();
+    }
+
+    // Flushes pending moves and releases the storage
+    public void close() throws IOException {
+        undoManager.close();
+        storage.close();
     }
 
     // ================== Move Handling ==================
     public void makeMove(int row, int col, int value) throws IOException {
         int prevValue = currentGame.getBoard()[row][col];
-        currentGame.getBoard()[row][col] = value;
+        place(row, col, value);
 
         UserAction action = new UserAction(row, col, value, prevValue);
         logUserAction(action);
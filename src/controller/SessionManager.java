@@ -0,0 +1,118 @@
+package controller;
+
+import controller.exceptions.NotFoundException;
+import storage.Storage;
+
+import java.io.IOException;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Hosts many concurrent games, each a ControllerFacade over its own session
+ * view of one shared Storage, so every game has its own board, undo history
+ * and persistence slot while the difficulty pools are shared.
+ *
+ * Calls into one session are serialized by that session's lock; different
+ * sessions never contend, and moves are persisted on the shared writer pool.
+ * A session only holds its own game state; generators are built per call and
+ * its files are opened on first use.
+ */
+public class SessionManager implements AutoCloseable {
+
+    @FunctionalInterface
+    public interface SessionTask<R, E extends Exception> {
+        R run(ControllerFacade game) throws E;
+    }
+
+    private final Storage storage;
+    private final ConcurrentHashMap<String, Session> sessions = new ConcurrentHashMap<>();
+
+    public SessionManager(Storage storage) {
+        this.storage = storage;
+    }
+
+    // Opens a new session under a random id
+    public String open() {
+        String id = UUID.randomUUID().toString();
+        open(id);
+        return id;
+    }
+
+    // Opens id, or does nothing when it is already open; a stored game is resumed with getCurrentGame
+    public void open(String id) {
+        sessions.computeIfAbsent(id, key ->
+                new Session(new ControllerFacade(storage.forSession(key))));
+    }
+
+    public <R, E extends Exception> R call(String id, SessionTask<R, E> task)
+            throws E, NotFoundException {
+
+        Session session = sessions.get(id);
+        if (session == null)
+            throw new NotFoundException("No session " + id);
+
+        session.lock.lock();
+        try {
+            if (session.closed)
+                throw new NotFoundException("Session closed: " + id);
+            return task.run(session.game);
+        } finally {
+            session.lock.unlock();
+        }
+    }
+
+    public boolean isOpen(String id) {
+        return sessions.containsKey(id);
+    }
+
+    public int size() {
+        return sessions.size();
+    }
+
+    // Flushes the session's moves and drops it, its files stay for a later open
+    public void close(String id) throws IOException {
+        Session session = sessions.remove(id);
+        if (session != null)
+            session.close();
+    }
+
+    @Override
+    public void close() throws IOException {
+        IOException failure = null;
+
+        for (String id : sessions.keySet()) {
+            try {
+                close(id);
+            } catch (IOException e) {
+                failure = e;
+            }
+        }
+        storage.close();
+
+        if (failure != null)
+            throw failure;
+    }
+
+    private static final class Session {
+        private final ReentrantLock lock = new ReentrantLock();
+        private final ControllerFacade game;
+        private boolean closed;
+
+        Session(ControllerFacade game) {
+            this.game = game;
+        }
+
+        void close() throws IOException {
+            lock.lock();
+            try {
+                if (!closed) {
+                    closed = true;
+                    game.close();
+                }
+            } finally {
+                lock.unlock();
+            }
+        }
+    }
+}
@@ -0,0 +1,224 @@
+package generator;
+
+import model.DifficultyEnum;
+import model.Game;
+import verifier.SudokuVerifier;
+import verifier.VerificationResult;
+import controller.exceptions.SolutionInvalidException;
+
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.BiConsumer;
+
+/**
+ * Generates many unique puzzles in parallel.
+ * Workers build a fresh solved grid (or transform the given source grid),
+ * carve and grade puzzles on all cores and
+ * hand them through a bounded queue to the calling thread, which streams them
+ * into the sink. At most QUEUE_CAPACITY finished puzzles are held in memory.
+ */
+public class BatchGenerator {
+
+    private static final int QUEUE_CAPACITY = 256;
+
+    private final SudokuVerifier verifier = new SudokuVerifier();
+    private final int threads;
+    private final long seed;
+
+    public BatchGenerator() {
+        this(Runtime.getRuntime().availableProcessors());
+    }
+
+    public BatchGenerator(int threads) {
+        this(threads, new RandomPairs().nextLong());
+    }
+
+    public BatchGenerator(int threads, long seed) {
+        this.threads = Math.max(1, threads);
+        this.seed = seed;
+    }
+
+    // Every puzzle comes from its own freshly generated solved grid
+    public int generate(int count,
+                        Map<DifficultyEnum, Double> mix,
+                        BiConsumer<DifficultyEnum, Game> sink)
+            throws SolutionInvalidException {
+        return run(null, count, mix, sink);
+    }
+
+    /**
+     * Generates count puzzles split across tiers by the weights in mix
+     * and passes each one to sink on the calling thread.
+     * Returns the number of puzzles delivered.
+     */
+    public int generate(int[][] solvedBoard,
+                        int count,
+                        Map<DifficultyEnum, Double> mix,
+                        BiConsumer<DifficultyEnum, Game> sink)
+            throws SolutionInvalidException {
+
+        if (verifier.verify(solvedBoard) != VerificationResult.VALID)
+            throw new SolutionInvalidException(
+                    "Solution is invalid or incomplete");
+
+        return run(solvedBoard, count, mix, sink);
+    }
+
+    private int run(int[][] solvedBoard,
+                    int count,
+                    Map<DifficultyEnum, Double> mix,
+                    BiConsumer<DifficultyEnum, Game> sink)
+            throws SolutionInvalidException {
+
+        DifficultyEnum[] plan = plan(count, mix);
+        BlockingQueue<Item> queue = new ArrayBlockingQueue<>(QUEUE_CAPACITY);
+        AtomicInteger next = new AtomicInteger();
+        ExecutorService pool = Executors.newFixedThreadPool(threads);
+
+        try {
+            for (int t = 0; t < threads; t++)
+                pool.execute(() -> work(solvedBoard, plan, next, queue));
+
+            for (int done = 0; done < plan.length; done++) {
+                Item item = queue.take();
+
+                if (item.error != null)
+                    throw new SolutionInvalidException(
+                            "Batch generation failed: " + item.error.getMessage());
+
+                sink.accept(item.level, item.game);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new SolutionInvalidException("Batch generation interrupted");
+        } finally {
+            pool.shutdownNow();
+        }
+
+        return plan.length;
+    }
+
+    // Each worker owns its random source, generators and solver, nothing is shared but the index
+    private void work(int[][] solvedBoard,
+                      DifficultyEnum[] plan,
+                      AtomicInteger next,
+                      BlockingQueue<Item> queue) {
+
+        Worker worker = new Worker();
+
+        try {
+            for (int i = next.getAndIncrement(); i < plan.length; i = next.getAndIncrement()) {
+                Game game = worker.generate(solvedBoard, puzzleSeed(seed, i), plan[i]);
+                queue.put(new Item(plan[i], game, null));
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (Exception e) {
+            try {
+                queue.put(new Item(null, null, e));
+            } catch (InterruptedException ignored) {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+
+    /**
+     * Rebuilds one puzzle of a batch from its seed, see puzzleSeed.
+     * solvedBoard is null when the batch generated its own grids.
+     */
+    public static Game reproduce(int[][] solvedBoard, long puzzleSeed, DifficultyEnum level)
+            throws SolutionInvalidException {
+        return new Worker().generate(solvedBoard, puzzleSeed, level);
+    }
+
+    // Seed of puzzle index in a batch, independent of which thread built it
+    public static long puzzleSeed(long batchSeed, int index) {
+        long z = batchSeed + (index + 1) * 0x9E3779B97F4A7C15L;
+        z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+        z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+        return z ^ (z >>> 31);
+    }
+
+    public long getSeed() {
+        return seed;
+    }
+
+    // Largest-remainder split of count over the mix weights
+    static DifficultyEnum[] plan(int count, Map<DifficultyEnum, Double> mix) {
+
+        if (count < 0)
+            throw new IllegalArgumentException("count must be >= 0");
+
+        DifficultyEnum[] levels = DifficultyEnum.values();
+        double total = 0;
+        for (DifficultyEnum level : levels)
+            total += Math.max(0, mix.getOrDefault(level, 0.0));
+
+        if (total <= 0)
+            throw new IllegalArgumentException("mix must have a positive weight");
+
+        int[] quota = new int[levels.length];
+        double[] rest = new double[levels.length];
+        int assigned = 0;
+
+        for (int i = 0; i < levels.length; i++) {
+            double exact = count * Math.max(0, mix.getOrDefault(levels[i], 0.0)) / total;
+            quota[i] = (int) exact;
+            rest[i] = exact - quota[i];
+            assigned += quota[i];
+        }
+
+        while (assigned < count) {
+            int best = 0;
+            for (int i = 1; i < levels.length; i++)
+                if (rest[i] > rest[best])
+                    best = i;
+            quota[best]++;
+            rest[best] = -1;
+            assigned++;
+        }
+
+        DifficultyEnum[] plan = new DifficultyEnum[count];
+        int p = 0;
+        for (int i = 0; i < levels.length; i++)
+            for (int k = 0; k < quota[i]; k++)
+                plan[p++] = levels[i];
+
+        return plan;
+    }
+
+    private static final class Worker {
+        private final RandomPairs random = new RandomPairs(0);
+        private final GameGenerator generator = new GameGenerator(random);
+        private final SymmetryTransformer transformer = new SymmetryTransformer(random);
+        private final SolvedGridGenerator grids = new SolvedGridGenerator(random);
+
+        Game generate(int[][] solvedBoard, long puzzleSeed, DifficultyEnum level)
+                throws SolutionInvalidException {
+
+            random.setSeed(puzzleSeed);
+
+            int[][] grid = solvedBoard == null
+                    ? grids.generate()
+                    : transformer.transform(solvedBoard);
+
+            return new Game(generator.carveGraded(grid, level));
+        }
+    }
+
+    private static final class Item {
+        private final DifficultyEnum level;
+        private final Game game;
+        private final Exception error;
+
+        Item(DifficultyEnum level, Game game, Exception error) {
+            this.level = level;
+            this.game = game;
+            this.error = error;
+        }
+    }
+}
@@ -2,18 +2,32 @@ package generator;
 
 import model.Game;
 import model.DifficultyEnum;
+import model.PackedBoard;
+import solver.DancingLinksSolver;
+import solver.Hint;
+import solver.LogicalSolver;
 import verifier.SudokuVerifier;
 import verifier.VerificationResult;
+import controller.exceptions.InvalidGame;
 import controller.exceptions.SolutionInvalidException;
 
 import java.util.HashMap;
-import java.util.List;
 import java.util.Map;
 
 public class GameGenerator {
 
     private final SudokuVerifier verifier = new SudokuVerifier();
-    private final RandomPairs randomPairs = new RandomPairs();
+    private final RandomPairs randomPairs;
+    private final DancingLinksSolver counter = new DancingLinksSolver();
+    private final LogicalSolver logic = new LogicalSolver();
+
+    public GameGenerator() {
+        this(new RandomPairs());
+    }
+
+    public GameGenerator(RandomPairs randomPairs) {
+        this.randomPairs = randomPairs;
+    }
 
     public Map<DifficultyEnum, Game> generateFromSolved(int[][] solvedBoard)
             throws SolutionInvalidException {
@@ -26,38 +40,168 @@ public class GameGenerator {
         }
 
         Map<DifficultyEnum, Game> games = new HashMap<>();
+        PackedBoard solved = PackedBoard.fromArray(solvedBoard);
 
         games.put(DifficultyEnum.EASY,
-                new Game(createGameBoard(solvedBoard, 10)));
+                new Game(createGameBoard(solved, 10)));
 
         games.put(DifficultyEnum.MEDIUM,
-                new Game(createGameBoard(solvedBoard, 20)));
+                new Game(createGameBoard(solved, 20)));
 
         games.put(DifficultyEnum.HARD,
-                new Game(createGameBoard(solvedBoard, 25)));
+                new Game(createGameBoard(solved, 25)));
 
         return games;
     }
 
-    private int[][] createGameBoard(int[][] solved, int emptyCells) {
+    // Unique mode: blank range each carve draws its target from, per tier, all
+    // within 40-60 blanks, and how many carves to try before giving up on a tier
+    private static final int EASY_MIN_BLANKS = 40;
+    private static final int EASY_MAX_BLANKS = 48;
+    private static final int MEDIUM_MIN_BLANKS = 46;
+    private static final int MEDIUM_MAX_BLANKS = 56;
+    private static final int HARD_MIN_BLANKS = 52;
+    private static final int HARD_MAX_BLANKS = 60;
+    private static final int GRADE_ATTEMPTS = 128;
+
+    public Map<DifficultyEnum, Game> generateUniqueFromSolved(int[][] solvedBoard)
+            throws SolutionInvalidException {
 
-        int[][] board = copyBoard(solved);
+        VerificationResult result = verifier.verify(solvedBoard);
 
-        List<int[]> pairs =
-                randomPairs.generateDistinctPairs(emptyCells);
+        if (result != VerificationResult.VALID) {
+            throw new SolutionInvalidException(
+                    "Solution is invalid or incomplete");
+        }
 
-        for (int[] p : pairs) {
-            board[p[0]][p[1]] = 0;
+        Map<DifficultyEnum, Game> games = new HashMap<>();
+
+        games.put(DifficultyEnum.EASY,
+                new Game(carveGraded(solvedBoard, DifficultyEnum.EASY)));
+
+        games.put(DifficultyEnum.MEDIUM,
+                new Game(carveGraded(solvedBoard, DifficultyEnum.MEDIUM)));
+
+        games.put(DifficultyEnum.HARD,
+                new Game(carveGraded(solvedBoard, DifficultyEnum.HARD)));
+
+        return games;
+    }
+
+    /**
+     * Carves until a puzzle grades as level. Throws when GRADE_ATTEMPTS carves
+     * all graded differently, a puzzle is never handed out under a tier it
+     * did not reach.
+     */
+    public int[][] carveGraded(int[][] solvedBoard, DifficultyEnum level)
+            throws SolutionInvalidException {
+
+        int min = switch (level) {
+            case EASY -> EASY_MIN_BLANKS;
+            case MEDIUM -> MEDIUM_MIN_BLANKS;
+            case HARD -> HARD_MIN_BLANKS;
+        };
+        int max = switch (level) {
+            case EASY -> EASY_MAX_BLANKS;
+            case MEDIUM -> MEDIUM_MAX_BLANKS;
+            case HARD -> HARD_MAX_BLANKS;
+        };
+
+        for (int i = 0; i < GRADE_ATTEMPTS; i++) {
+            int[][] board = carveUnique(solvedBoard, min + randomPairs.nextInt(max - min + 1));
+            if (grade(board) == level)
+                return board;
+        }
+
+        throw new SolutionInvalidException(
+                "No " + level + " puzzle in " + GRADE_ATTEMPTS + " carves");
+    }
+
+    /**
+     * Blanks cells in random order, keeping only removals after which the
+     * puzzle still has exactly one solution. Stops at targetBlanks or when
+     * no further cell can be removed.
+     */
+    public int[][] carveUnique(int[][] solvedBoard, int targetBlanks)
+            throws SolutionInvalidException {
+
+        int[][] board = PackedBoard.fromArray(solvedBoard).toArray();
+        int blanks = 0;
+
+        for (int cell : randomPairs.distinctCells(81)) {
+            if (blanks == targetBlanks)
+                break;
+
+            int r = cell / 9;
+            int c = cell % 9;
+            int value = board[r][c];
+            board[r][c] = 0;
+
+            if (countSolutions(board, 2) == 1)
+                blanks++;
+            else
+                board[r][c] = value;
         }
 
         return board;
     }
 
-    private int[][] copyBoard(int[][] source) {
-        int[][] copy = new int[9][9];
-        for (int r = 0; r < 9; r++) {
-            System.arraycopy(source[r], 0, copy[r], 0, 9);
+    // Average technique cost per blank from which a puzzle moves up a tier:
+    // singles only to MEDIUM, locked candidates at most to HARD
+    private static final double SINGLES_MEDIUM_COST = 1.15;
+    private static final double LOCKED_HARD_COST = 1.5;
+
+    /**
+     * Grades a unique puzzle by how a player would solve it: the hardest
+     * technique LogicalSolver needs sets the tier (singles EASY, locked
+     * candidates MEDIUM, pairs and beyond HARD), and a high average cost per
+     * blank moves it up one. Returns null when those techniques cannot
+     * finish the puzzle, it has no tier.
+     */
+    public DifficultyEnum grade(int[][] puzzle)
+            throws SolutionInvalidException {
+
+        LogicalSolver.Result result;
+        try {
+            result = logic.solve(puzzle);
+        } catch (InvalidGame e) {
+            throw new SolutionInvalidException(e.getMessage());
+        }
+
+        if (!result.isSolved())
+            return null;
+
+        int blanks = new Game(puzzle).countEmptyCells();
+        if (blanks == 0)
+            return DifficultyEnum.EASY;
+
+        double cost = (double) result.getScore() / blanks;
+        Hint.Technique hardest = result.getHardest();
+
+        if (hardest.compareTo(Hint.Technique.HIDDEN_SINGLE) <= 0)
+            return cost < SINGLES_MEDIUM_COST ? DifficultyEnum.EASY : DifficultyEnum.MEDIUM;
+        if (hardest.compareTo(Hint.Technique.BOX_LINE_REDUCTION) <= 0)
+            return cost < LOCKED_HARD_COST ? DifficultyEnum.MEDIUM : DifficultyEnum.HARD;
+        return DifficultyEnum.HARD;
+    }
+
+    private int countSolutions(int[][] board, int limit)
+            throws SolutionInvalidException {
+        try {
+            return counter.countSolutions(board, limit);
+        } catch (InvalidGame e) {
+            throw new SolutionInvalidException(e.getMessage());
+        }
+    }
+
+    private PackedBoard createGameBoard(PackedBoard solved, int emptyCells) {
+
+        PackedBoard board = solved.copy();
+
+        for (int cell : randomPairs.distinctCells(emptyCells)) {
+            board.set(cell, 0);
         }
-        return copy;
+
+        return board;
     }
 }
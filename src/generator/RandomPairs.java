@@ -1,37 +1,89 @@
 package generator;
 
 import java.util.ArrayList;
-import java.util.HashSet;
 import java.util.List;
-import java.util.Random;
-import java.util.Set;
+import java.util.SplittableRandom;
+
+/**
+ * Seedable random source for the generators.
+ * Backed by SplittableRandom, so an instance is cheap, uncontended and
+ * reproducible from its seed. Use split() or one instance per thread,
+ * instances themselves are not thread safe.
+ */
 public class RandomPairs {
     // Range 0..8 for both x and y
     private static final int MAX_COORD = 8;
     private static final int MAX_UNIQUE_PAIRS = (MAX_COORD + 1) * (MAX_COORD + 1);
-    private final Random random;
+
+    // Cell indices (x * 9 + y), shuffled in place by partial Fisher-Yates
+    private final int[] slots = new int[MAX_UNIQUE_PAIRS];
+    private SplittableRandom random;
+    private long seed;
+
     public RandomPairs() {
-        this.random = new Random(System.currentTimeMillis());
+        this(new SplittableRandom().nextLong());
+    }
+
+    public RandomPairs(long seed) {
+        setSeed(seed);
+    }
+
+    // Also resets the shuffle buffer, so the same seed always gives the same sequence
+    public void setSeed(long seed) {
+        this.seed = seed;
+        this.random = new SplittableRandom(seed);
+        for (int i = 0; i < MAX_UNIQUE_PAIRS; i++)
+            slots[i] = i;
+    }
+
+    public long getSeed() {
+        return seed;
+    }
+
+    // Independent generator for another thread, its seed is drawn from this stream
+    public RandomPairs split() {
+        return new RandomPairs(random.nextLong());
+    }
+
+    public int nextInt(int bound) {
+        return random.nextInt(bound);
     }
+
+    public boolean nextBoolean() {
+        return random.nextBoolean();
+    }
+
+    public long nextLong() {
+        return random.nextLong();
+    }
+
     /**
      * Generate n distinct random pairs (x, y) where 0 <= x <= 8 and 0 <= y <= 8.
      */
     public List<int[]> generateDistinctPairs(int n) {
+        int[] cells = distinctCells(n);
+        List<int[]> result = new ArrayList<>(n);
+        for (int cell : cells)
+            result.add(new int[] { cell / (MAX_COORD + 1), cell % (MAX_COORD + 1) });
+        return result;
+    }
+
+    /**
+     * Generate n distinct random cell indices x * 9 + y, without boxing or retries.
+     */
+    public int[] distinctCells(int n) {
         if (n < 0 || n > MAX_UNIQUE_PAIRS) {
             throw new IllegalArgumentException(
                     "n must be between 0 and " + MAX_UNIQUE_PAIRS + " (inclusive)");
         }
-        Set<Integer> used = new HashSet<>();
-        List<int[]> result = new ArrayList<>(n);
-        while (result.size() < n) {
-            int x = random.nextInt(MAX_COORD + 1); // 0..8
-            int y = random.nextInt(MAX_COORD + 1); // 0..8
-// Encode pair (x, y) as a single int to track uniqueness
-            int key = x * (MAX_COORD + 1) + y;
-            if (used.add(key)) {
-                result.add(new int[] { x, y });
-            }
+        for (int i = 0; i < n; i++) {
+            int j = i + random.nextInt(MAX_UNIQUE_PAIRS - i);
+            int t = slots[i];
+            slots[i] = slots[j];
+            slots[j] = t;
         }
+        int[] result = new int[n];
+        System.arraycopy(slots, 0, result, 0, n);
         return result;
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,154 @@
+package generator;
+
+/**
+ * Produces random complete grids.
+ * The three diagonal boxes are independent, so they are filled with random
+ * permutations first; the rest is completed by randomized backtracking on
+ * row, column and box bitmasks, most constrained cell first.
+ * Instances are not thread safe, use one generator per thread.
+ */
+public class SolvedGridGenerator {
+
+    private final RandomPairs random;
+
+    private final int[] cells = new int[81];
+    private final int[] rows = new int[9];
+    private final int[] cols = new int[9];
+    private final int[] boxes = new int[9];
+    private final int[] empty = new int[81];
+    private int count;
+
+    public SolvedGridGenerator() {
+        this(new RandomPairs());
+    }
+
+    public SolvedGridGenerator(RandomPairs random) {
+        this.random = random;
+    }
+
+    public int[][] generate() {
+        reset();
+
+        for (int b = 0; b < 9; b += 4) {
+            int[] digits = permutation();
+            for (int i = 0; i < 9; i++) {
+                int r = (b / 3) * 3 + i / 3;
+                int c = (b % 3) * 3 + i % 3;
+                set(r * 9 + c, digits[i]);
+            }
+        }
+
+        count = 0;
+        for (int i = 0; i < 81; i++)
+            if (cells[i] == 0)
+                empty[count++] = i;
+
+        // Any fill of the diagonal boxes can be completed
+        if (!fill(0))
+            throw new IllegalStateException("Grid could not be completed");
+
+        int[][] grid = new int[9][9];
+        for (int i = 0; i < 81; i++)
+            grid[i / 9][i % 9] = cells[i];
+        return grid;
+    }
+
+    private boolean fill(int depth) {
+        if (depth == count)
+            return true;
+
+        int best = depth;
+        int bestMask = 0;
+        int bestCount = 10;
+
+        for (int i = depth; i < count; i++) {
+            int mask = candidates(empty[i]);
+            int n = Integer.bitCount(mask);
+            if (n < bestCount) {
+                best = i;
+                bestMask = mask;
+                bestCount = n;
+                if (n <= 1) break;
+            }
+        }
+
+        if (bestCount == 0)
+            return false;
+
+        int idx = empty[best];
+        empty[best] = empty[depth];
+        empty[depth] = idx;
+
+        // Try the candidates in random order
+        for (int mask = bestMask; mask != 0; ) {
+            int bit = pickBit(mask);
+            mask &= ~bit;
+
+            set(idx, Integer.numberOfTrailingZeros(bit) + 1);
+
+            if (fill(depth + 1))
+                return true;
+
+            unset(idx);
+        }
+
+        empty[depth] = empty[best];
+        empty[best] = idx;
+        return false;
+    }
+
+    private int pickBit(int mask) {
+        int k = random.nextInt(Integer.bitCount(mask));
+        for (int m = mask; ; m &= m - 1) {
+            if (k-- == 0)
+                return m & -m;
+        }
+    }
+
+    private int[] permutation() {
+        int[] digits = {1, 2, 3, 4, 5, 6, 7, 8, 9};
+        for (int i = 8; i > 0; i--) {
+            int j = random.nextInt(i + 1);
+            int t = digits[i];
+            digits[i] = digits[j];
+            digits[j] = t;
+        }
+        return digits;
+    }
+
+    private int candidates(int idx) {
+        int r = idx / 9;
+        int c = idx % 9;
+        return ~(rows[r] | cols[c] | boxes[(r / 3) * 3 + c / 3]) & 0x1FF;
+    }
+
+    private void set(int idx, int value) {
+        int r = idx / 9;
+        int c = idx % 9;
+        int bit = 1 << (value - 1);
+        rows[r] |= bit;
+        cols[c] |= bit;
+        boxes[(r / 3) * 3 + c / 3] |= bit;
+        cells[idx] = value;
+    }
+
+    private void unset(int idx) {
+        int r = idx / 9;
+        int c = idx % 9;
+        int bit = ~(1 << (cells[idx] - 1));
+        rows[r] &= bit;
+        cols[c] &= bit;
+        boxes[(r / 3) * 3 + c / 3] &= bit;
+        cells[idx] = 0;
+    }
+
+    private void reset() {
+        for (int i = 0; i < 81; i++)
+            cells[i] = 0;
+        for (int i = 0; i < 9; i++) {
+            rows[i] = 0;
+            cols[i] = 0;
+            boxes[i] = 0;
+        }
+    }
+}
@@ -0,0 +1,65 @@
+package generator;
+
+/**
+ * Applies random validity-preserving transforms to a solved grid:
+ * band and stack swaps, row swaps inside a band, column swaps inside a stack,
+ * transposition and digit relabeling.
+ * One solved grid yields up to 1.2 trillion distinct grids this way.
+ */
+public class SymmetryTransformer {
+
+    private final RandomPairs random;
+
+    public SymmetryTransformer() {
+        this(new RandomPairs());
+    }
+
+    public SymmetryTransformer(RandomPairs random) {
+        this.random = random;
+    }
+
+    public int[][] transform(int[][] solved) {
+        int[] rowMap = lineMap();
+        int[] colMap = lineMap();
+        int[] digits = shuffled(10, 1);
+        boolean transpose = random.nextBoolean();
+
+        int[][] out = new int[9][9];
+        for (int r = 0; r < 9; r++) {
+            for (int c = 0; c < 9; c++) {
+                int v = solved[rowMap[r]][colMap[c]];
+                if (transpose)
+                    out[c][r] = digits[v];
+                else
+                    out[r][c] = digits[v];
+            }
+        }
+        return out;
+    }
+
+    // Maps each output line to a source line, keeping lines inside their band
+    private int[] lineMap() {
+        int[] bands = shuffled(3, 0);
+        int[] map = new int[9];
+        for (int b = 0; b < 3; b++) {
+            int[] inner = shuffled(3, 0);
+            for (int i = 0; i < 3; i++)
+                map[b * 3 + i] = bands[b] * 3 + inner[i];
+        }
+        return map;
+    }
+
+    // Identity below from, shuffled from..size-1
+    private int[] shuffled(int size, int from) {
+        int[] values = new int[size];
+        for (int i = 0; i < size; i++)
+            values[i] = i;
+        for (int i = size - 1; i > from; i--) {
+            int j = from + random.nextInt(i - from + 1);
+            int t = values[i];
+            values[i] = values[j];
+            values[j] = t;
+        }
+        return values;
+    }
+}
@@ -11,6 +11,10 @@ public class Game {
         this.board = board;
     }
 
+    public Game(PackedBoard board) {
+        this.board = board.toArray();
+    }
+
     public int[][] getBoard() {
         return board;
     }
@@ -25,6 +29,15 @@ public class Game {
     }
 
     public int countEmptyCells() {
-        return getEmptyCells().size();
+        int empty = 0;
+        for (int r = 0; r < 9; r++)
+            for (int c = 0; c < 9; c++)
+                if (board[r][c] == 0)
+                    empty++;
+        return empty;
+    }
+
+    public PackedBoard toPacked() {
+        return PackedBoard.fromArray(board);
     }
 }
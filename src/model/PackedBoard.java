@@ -0,0 +1,122 @@
+package model;
+
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+
+/**
+ * Compact 9x9 board, 81 cells packed as 4-bit nibbles into six longs.
+ * Cell index is row * 9 + col, 16 cells per word.
+ * Copying is a fixed 6-word clone and equals/hashCode work on the packed words,
+ * so boards can be kept in large collections and hash sets cheaply.
+ */
+public final class PackedBoard {
+
+    // Serialized size: two cells per byte, cell 2i in the low nibble
+    public static final int BYTES = 41;
+
+    private static final int WORDS = 6;
+
+    private final long[] words;
+
+    public PackedBoard() {
+        this.words = new long[WORDS];
+    }
+
+    private PackedBoard(long[] words) {
+        this.words = words;
+    }
+
+    public static PackedBoard fromArray(int[][] board) {
+        PackedBoard packed = new PackedBoard();
+        for (int r = 0; r < 9; r++)
+            for (int c = 0; c < 9; c++)
+                packed.set(r * 9 + c, board[r][c]);
+        return packed;
+    }
+
+    public int[][] toArray() {
+        int[][] board = new int[9][9];
+        copyInto(board);
+        return board;
+    }
+
+    public void copyInto(int[][] board) {
+        for (int r = 0; r < 9; r++)
+            for (int c = 0; c < 9; c++)
+                board[r][c] = get(r * 9 + c);
+    }
+
+    public void writeTo(ByteBuffer buffer) {
+        for (int i = 0; i < 81; i += 2) {
+            int hi = i + 1 < 81 ? get(i + 1) : 0;
+            buffer.put((byte) (get(i) | (hi << 4)));
+        }
+    }
+
+    public static PackedBoard readFrom(ByteBuffer buffer) {
+        PackedBoard packed = new PackedBoard();
+        for (int i = 0; i < 81; i += 2) {
+            int b = buffer.get() & 0xFF;
+            packed.set(i, b & 0xF);
+            if (i + 1 < 81)
+                packed.set(i + 1, b >>> 4);
+        }
+        return packed;
+    }
+
+    public int get(int row, int col) {
+        return get(row * 9 + col);
+    }
+
+    public int get(int index) {
+        return (int) (words[index >>> 4] >>> ((index & 15) << 2)) & 0xF;
+    }
+
+    public void set(int row, int col, int value) {
+        set(row * 9 + col, value);
+    }
+
+    public void set(int index, int value) {
+        if (value < 0 || value > 9)
+            throw new IllegalArgumentException("Cell value out of range: " + value);
+
+        int shift = (index & 15) << 2;
+        int w = index >>> 4;
+        words[w] = (words[w] & ~(0xFL << shift)) | ((long) value << shift);
+    }
+
+    public PackedBoard copy() {
+        return new PackedBoard(words.clone());
+    }
+
+    public int countEmptyCells() {
+        int empty = 0;
+        for (int i = 0; i < 81; i++)
+            if (get(i) == 0)
+                empty++;
+        return empty;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (!(o instanceof PackedBoard)) return false;
+        return Arrays.equals(words, ((PackedBoard) o).words);
+    }
+
+    @Override
+    public int hashCode() {
+        long h = 0;
+        for (long w : words)
+            h = (h ^ w) * 0x9E3779B97F4A7C15L;
+        return (int) (h ^ (h >>> 32));
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder sb = new StringBuilder(81);
+        for (int i = 0; i < 81; i++)
+            sb.append((char) ('0' + get(i)));
+        return sb.toString();
+    }
+}
@@ -0,0 +1,155 @@
+package solver;
+
+import controller.exceptions.InvalidGame;
+
+/**
+ * Backtracking solver driven by candidate bitmasks.
+ * Each row, column and box keeps a 9-bit mask of the digits already used,
+ * the most constrained empty cell is filled first.
+ * Works with any number of empty cells.
+ */
+public class BacktrackingSolver implements Solver {
+
+    @Override
+    public int[] solve(int[][] board, SearchControl control) throws InvalidGame {
+
+        Search search = new Search(board, control);
+
+        try {
+            if (!search.run(0))
+                throw new InvalidGame("No solution found");
+        } finally {
+            control.addNodes(search.nodes % SearchControl.CHECK_INTERVAL);
+        }
+
+        return search.buildSolution();
+    }
+
+    static int boxOf(int row, int col) {
+        return (row / 3) * 3 + col / 3;
+    }
+
+    // Per-call state, so one solver instance can be shared between threads
+    private static final class Search {
+
+        private final int[] cells = new int[81];
+        private final int[] rows = new int[9];
+        private final int[] cols = new int[9];
+        private final int[] boxes = new int[9];
+        private final int[] empty = new int[81];
+        private final int[] order;
+        private final int count;
+        private final SearchControl control;
+        private long nodes;
+
+        Search(int[][] board, SearchControl control) throws InvalidGame {
+            this.control = control;
+            int n = 0;
+
+            for (int r = 0; r < 9; r++) {
+                for (int c = 0; c < 9; c++) {
+                    int v = board[r][c];
+
+                    if (v < 0 || v > 9)
+                        throw new InvalidGame("Cell value out of range: " + v);
+
+                    if (v == 0) {
+                        empty[n++] = r * 9 + c;
+                        continue;
+                    }
+
+                    int bit = 1 << (v - 1);
+                    int b = boxOf(r, c);
+
+                    if (((rows[r] | cols[c] | boxes[b]) & bit) != 0)
+                        throw new InvalidGame("Board is invalid");
+
+                    rows[r] |= bit;
+                    cols[c] |= bit;
+                    boxes[b] |= bit;
+                    cells[r * 9 + c] = v;
+                }
+            }
+
+            count = n;
+            order = new int[n];
+            System.arraycopy(empty, 0, order, 0, n);
+        }
+
+        boolean run(int depth) {
+            if (depth == count)
+                return true;
+
+            if (++nodes % SearchControl.CHECK_INTERVAL == 0) {
+                control.addNodes(SearchControl.CHECK_INTERVAL);
+                control.checkCancelled();
+            }
+
+            // Most constrained cell first
+            int best = depth;
+            int bestMask = 0;
+            int bestCount = 10;
+
+            for (int i = depth; i < count; i++) {
+                int idx = empty[i];
+                int r = idx / 9;
+                int c = idx % 9;
+                int mask = ~(rows[r] | cols[c] | boxes[boxOf(r, c)]) & 0x1FF;
+                int n = Integer.bitCount(mask);
+
+                if (n < bestCount) {
+                    best = i;
+                    bestMask = mask;
+                    bestCount = n;
+                    if (n <= 1) break;
+                }
+            }
+
+            if (bestCount == 0)
+                return false;
+
+            int idx = empty[best];
+            empty[best] = empty[depth];
+            empty[depth] = idx;
+
+            int r = idx / 9;
+            int c = idx % 9;
+            int b = boxOf(r, c);
+
+            for (int mask = bestMask; mask != 0; mask &= mask - 1) {
+                int bit = mask & -mask;
+
+                rows[r] |= bit;
+                cols[c] |= bit;
+                boxes[b] |= bit;
+                cells[idx] = Integer.numberOfTrailingZeros(bit) + 1;
+
+                if (run(depth + 1))
+                    return true;
+
+                rows[r] &= ~bit;
+                cols[c] &= ~bit;
+                boxes[b] &= ~bit;
+            }
+
+            cells[idx] = 0;
+            empty[depth] = empty[best];
+            empty[best] = idx;
+            return false;
+        }
+
+        // Same layout as the permutation solvers: (row, col, value) triplets
+        int[] buildSolution() {
+            int[] solution = new int[count * 3];
+
+            for (int i = 0; i < count; i++) {
+                int idx = order[i];
+                solution[i * 3] = idx / 9;
+                solution[i * 3 + 1] = idx % 9;
+                solution[i * 3 + 2] = cells[idx];
+            }
+
+            return solution;
+        }
+    }
+}
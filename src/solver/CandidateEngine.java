@@ -0,0 +1,91 @@
+package solver;
+
+import verifier.ConflictTracker;
+import verifier.InvalidCells;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Pencil marks for a board being played: a 9-bit candidate mask per empty cell,
+ * bit (v - 1) set when digit v fits its row, column and box.
+ *
+ * The masks come straight from the board's ConflictTracker, which already
+ * keeps unit occupancy move by move; this engine only adds the digits that
+ * hints have ruled out. Hints are then found with mask lookups instead of
+ * a search. Not thread safe.
+ */
+public class CandidateEngine {
+
+    private final ConflictTracker board;
+
+    // Digits ruled out of each cell by elimination hints already given
+    private final int[] eliminated = new int[81];
+    private final int[] masks = new int[81];
+    private final List<Hint> step = new ArrayList<>();
+
+    public CandidateEngine(ConflictTracker board) {
+        this.board = board;
+    }
+
+    // Forgets all eliminations, call after the board was loaded
+    public void reset() {
+        Arrays.fill(eliminated, 0);
+    }
+
+    /**
+     * Call after a cell of the board changed. Eliminations stay true while
+     * digits are only added; one taken off the board may have been what
+     * they rested on, so then they are all dropped.
+     */
+    public void cellChanged(int row, int col, int oldValue) {
+        if (oldValue != 0)
+            Arrays.fill(eliminated, 0);
+        else
+            eliminated[row * 9 + col] = 0;
+    }
+
+    // 0 for a filled cell
+    public int getCandidates(int row, int col) {
+        if (board.get(row, col) != 0)
+            return 0;
+        return board.candidates(row, col) & ~eliminated[row * 9 + col];
+    }
+
+    // Candidate masks of all 81 cells, indexed [row][col]
+    public int[][] snapshot() {
+        int[][] grid = new int[9][9];
+        for (int i = 0; i < 81; i++)
+            grid[i / 9][i % 9] = getCandidates(i / 9, i % 9);
+        return grid;
+    }
+
+    /**
+     * Cheapest next step, trying techniques in Hint.Technique order. Returns
+     * null when none applies, or when a blank has no candidate left and the
+     * board cannot be finished as it stands. An elimination is applied to the
+     * pencil marks as it is handed out; a step eliminating several digits
+     * comes back one digit per call.
+     */
+    public Hint nextHint() {
+        for (int i = 0; i < 81; i++) {
+            masks[i] = getCandidates(i / 9, i % 9);
+            if (masks[i] == 0 && board.get(i / 9, i % 9) == 0)
+                return null;
+        }
+
+        step.clear();
+        if (!Techniques.next(masks, step))
+            return null;
+
+        Hint hint = step.get(0);
+        if (!hint.isPlacement()) {
+            InvalidCells cells = hint.getEliminations();
+            int bit = 1 << (hint.getDigit() - 1);
+            for (int i = cells.nextCell(0); i >= 0; i = cells.nextCell(i + 1))
+                eliminated[i] |= bit;
+        }
+        return hint;
+    }
+}
@@ -0,0 +1,259 @@
+package solver;
+
+import controller.exceptions.InvalidGame;
+
+/**
+ * Knuth's Algorithm X on a dancing links matrix.
+ * The 729 candidate rows and 324 constraint columns
+ * (cell, row-digit, column-digit, box-digit) are built once in the
+ * constructor as flat int arrays, so solving and counting never allocate
+ * apart from the returned solution.
+ * Instances are not thread safe, use one solver per thread.
+ */
+public class DancingLinksSolver implements Solver {
+
+    private static final int COLUMNS = 324;
+    private static final int ROWS = 729;
+    private static final int ROOT = 0;
+    private static final int FIRST_NODE = COLUMNS + 1;
+    private static final int NODES = FIRST_NODE + ROWS * 4;
+
+    private final int[] left = new int[NODES];
+    private final int[] right = new int[NODES];
+    private final int[] up = new int[NODES];
+    private final int[] down = new int[NODES];
+    private final int[] column = new int[NODES];
+    private final int[] size = new int[COLUMNS + 1];
+
+    private final int[] stack = new int[81];
+    private final int[] solutionRows = new int[81];
+    private final int[] givenRows = new int[81];
+    private final int[] grid = new int[81];
+    private int solutionDepth;
+    private long nodes;
+
+    // Set only while solve runs with a control; a cancelled search unwinds instead of throwing mid-cover
+    private SearchControl control;
+    private boolean stopped;
+
+    public DancingLinksSolver() {
+        for (int c = 0; c <= COLUMNS; c++) {
+            left[c] = c == 0 ? COLUMNS : c - 1;
+            right[c] = c == COLUMNS ? 0 : c + 1;
+            up[c] = c;
+            down[c] = c;
+            column[c] = c;
+        }
+
+        for (int row = 0; row < ROWS; row++) {
+            int cell = row / 9;
+            int r = cell / 9;
+            int c = cell % 9;
+            int d = row % 9;
+            int b = (r / 3) * 3 + c / 3;
+
+            int[] cols = {
+                    1 + cell,
+                    1 + 81 + r * 9 + d,
+                    1 + 162 + c * 9 + d,
+                    1 + 243 + b * 9 + d
+            };
+
+            int first = FIRST_NODE + row * 4;
+            for (int k = 0; k < 4; k++) {
+                int node = first + k;
+                int col = cols[k];
+
+                column[node] = col;
+                up[node] = up[col];
+                down[node] = col;
+                down[up[col]] = node;
+                up[col] = node;
+                size[col]++;
+
+                left[node] = first + (k + 3) % 4;
+                right[node] = first + (k + 1) % 4;
+            }
+        }
+    }
+
+    // Throws CancellationException when control is cancelled mid-search
+    @Override
+    public int[] solve(int[][] board, SearchControl control) throws InvalidGame {
+
+        int given = coverGivens(board);
+        int found;
+
+        this.control = control;
+        try {
+            found = search(0, 1, true);
+        } finally {
+            uncoverGivens(given);
+            control.addNodes(nodes % SearchControl.CHECK_INTERVAL);
+            this.control = null;
+            stopped = false;
+        }
+
+        if (found == 0) {
+            control.checkCancelled();
+            throw new InvalidGame("No solution found");
+        }
+
+        for (int i = 0; i < solutionDepth; i++) {
+            int row = (solutionRows[i] - FIRST_NODE) / 4;
+            grid[row / 9] = row % 9 + 1;
+        }
+
+        int empty = 0;
+        for (int r = 0; r < 9; r++)
+            for (int c = 0; c < 9; c++)
+                if (board[r][c] == 0)
+                    empty++;
+
+        int[] solution = new int[empty * 3];
+        int i = 0;
+        for (int r = 0; r < 9; r++) {
+            for (int c = 0; c < 9; c++) {
+                if (board[r][c] != 0) continue;
+                solution[i++] = r;
+                solution[i++] = c;
+                solution[i++] = grid[r * 9 + c];
+            }
+        }
+
+        return solution;
+    }
+
+    // Stops as soon as limit solutions are found, limit 2 answers "is it unique?"
+    public int countSolutions(int[][] board, int limit) throws InvalidGame {
+
+        if (limit <= 0)
+            return 0;
+
+        int given = coverGivens(board);
+
+        try {
+            return search(0, limit, false);
+        } finally {
+            uncoverGivens(given);
+        }
+    }
+
+    // Search nodes visited by the last solve/countSolutions call
+    public long getNodeCount() {
+        return nodes;
+    }
+
+    private int coverGivens(int[][] board) throws InvalidGame {
+        nodes = 0;
+        int given = 0;
+
+        for (int r = 0; r < 9; r++) {
+            for (int c = 0; c < 9; c++) {
+                int v = board[r][c];
+
+                if (v < 0 || v > 9) {
+                    uncoverGivens(given);
+                    throw new InvalidGame("Cell value out of range: " + v);
+                }
+
+                if (v == 0) continue;
+
+                int first = FIRST_NODE + ((r * 9 + c) * 9 + v - 1) * 4;
+
+                for (int k = 0; k < 4; k++) {
+                    if (isCovered(column[first + k])) {
+                        uncoverGivens(given);
+                        throw new InvalidGame("Board is invalid");
+                    }
+                }
+
+                for (int k = 0; k < 4; k++)
+                    cover(column[first + k]);
+
+                givenRows[given++] = first;
+            }
+        }
+
+        return given;
+    }
+
+    private void uncoverGivens(int given) {
+        for (int i = given - 1; i >= 0; i--) {
+            int first = givenRows[i];
+            for (int k = 3; k >= 0; k--)
+                uncover(column[first + k]);
+        }
+    }
+
+    private boolean isCovered(int col) {
+        return right[left[col]] != col;
+    }
+
+    private int search(int depth, int limit, boolean record) {
+
+        if (right[ROOT] == ROOT) {
+            if (record) {
+                System.arraycopy(stack, 0, solutionRows, 0, depth);
+                solutionDepth = depth;
+            }
+            return 1;
+        }
+
+        int col = right[ROOT];
+        for (int c = right[col]; c != ROOT; c = right[c])
+            if (size[c] < size[col])
+                col = c;
+
+        if (size[col] == 0)
+            return 0;
+
+        cover(col);
+
+        int found = 0;
+        for (int node = down[col]; node != col && found < limit && !stopped; node = down[node]) {
+            if (++nodes % SearchControl.CHECK_INTERVAL == 0 && control != null) {
+                control.addNodes(SearchControl.CHECK_INTERVAL);
+                stopped = control.isCancelled();
+            }
+            stack[depth] = node;
+
+            for (int j = right[node]; j != node; j = right[j])
+                cover(column[j]);
+
+            found += search(depth + 1, limit - found, record);
+
+            for (int j = left[node]; j != node; j = left[j])
+                uncover(column[j]);
+        }
+
+        uncover(col);
+        return found;
+    }
+
+    private void cover(int col) {
+        right[left[col]] = right[col];
+        left[right[col]] = left[col];
+
+        for (int i = down[col]; i != col; i = down[i]) {
+            for (int j = right[i]; j != i; j = right[j]) {
+                down[up[j]] = down[j];
+                up[down[j]] = up[j];
+                size[column[j]]--;
+            }
+        }
+    }
+
+    private void uncover(int col) {
+        for (int i = up[col]; i != col; i = up[i]) {
+            for (int j = left[i]; j != i; j = left[j]) {
+                size[column[j]]++;
+                down[up[j]] = j;
+                up[down[j]] = j;
+            }
+        }
+
+        right[left[col]] = col;
+        left[right[col]] = col;
+    }
+}
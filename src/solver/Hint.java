@@ -0,0 +1,95 @@
+package solver;
+
+import verifier.InvalidCells;
+
+/**
+ * One logical step for the player: either a digit to place in a cell, or a
+ * digit to rule out of a set of cells.
+ */
+public class Hint {
+
+    // In order of cost, cheapest first; the cost feeds LogicalSolver's difficulty score
+    public enum Technique {
+        NAKED_SINGLE(1),
+        HIDDEN_SINGLE(2),
+        POINTING_PAIR(5),
+        BOX_LINE_REDUCTION(6),
+        NAKED_PAIR(10),
+        HIDDEN_PAIR(12),
+        NAKED_TRIPLE(16),
+        HIDDEN_TRIPLE(20),
+        X_WING(25),
+        SWORDFISH(35);
+
+        private final int cost;
+
+        Technique(int cost) {
+            this.cost = cost;
+        }
+
+        public int getCost() {
+            return cost;
+        }
+    }
+
+    private final Technique technique;
+    private final int digit;
+    private final int row;
+    private final int col;
+    private final InvalidCells eliminations;
+
+    private Hint(Technique technique, int digit, int row, int col, InvalidCells eliminations) {
+        this.technique = technique;
+        this.digit = digit;
+        this.row = row;
+        this.col = col;
+        this.eliminations = eliminations;
+    }
+
+    static Hint place(Technique technique, int cell, int digit) {
+        return new Hint(technique, digit, cell / 9, cell % 9, new InvalidCells());
+    }
+
+    static Hint eliminate(Technique technique, int digit, InvalidCells cells) {
+        return new Hint(technique, digit, -1, -1, cells);
+    }
+
+    public Technique getTechnique() {
+        return technique;
+    }
+
+    public int getDigit() {
+        return digit;
+    }
+
+    public boolean isPlacement() {
+        return row >= 0;
+    }
+
+    // -1 for eliminations
+    public int getRow() {
+        return row;
+    }
+
+    public int getCol() {
+        return col;
+    }
+
+    // Cells that can no longer hold digit, empty for placements
+    public InvalidCells getEliminations() {
+        return eliminations;
+    }
+
+    @Override
+    public String toString() {
+        String name = technique.name().toLowerCase().replace('_', ' ');
+
+        if (isPlacement())
+            return String.format("%s: (%d, %d) = %d", name, row, col, digit);
+
+        StringBuilder sb = new StringBuilder(name).append(": remove ").append(digit).append(" from");
+        for (int i = eliminations.nextCell(0); i >= 0; i = eliminations.nextCell(i + 1))
+            sb.append(" (").append(i / 9).append(", ").append(i % 9).append(")");
+        return sb.toString();
+    }
+}
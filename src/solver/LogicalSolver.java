@@ -0,0 +1,167 @@
+package solver;
+
+import controller.exceptions.InvalidGame;
+import solver.Hint.Technique;
+import verifier.InvalidCells;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Solves the way a player would, without guessing.
+ * Candidates are 9-bit masks per cell; every round applies the cheapest
+ * technique that makes progress (singles, locked candidates, naked and
+ * hidden pairs and triples, X-Wing, Swordfish) and starts over from the
+ * cheapest again.
+ *
+ * The steps taken are kept as a trace of Hints, and their summed costs give
+ * a difficulty score. A puzzle these techniques cannot finish comes back
+ * unsolved, with the board as far as they got. Keeps nothing between calls.
+ */
+public class LogicalSolver {
+
+    private static final int ALL = 0x1FF;
+
+    public Result solve(int[][] board) throws InvalidGame {
+        Search search = new Search(board);
+        search.run();
+        return search.result();
+    }
+
+    public static final class Result {
+
+        private final boolean solved;
+        private final int[][] board;
+        private final List<Hint> steps;
+        private final int score;
+        private final Technique hardest;
+
+        private Result(boolean solved, int[][] board, List<Hint> steps, int score, Technique hardest) {
+            this.solved = solved;
+            this.board = board;
+            this.steps = steps;
+            this.score = score;
+            this.hardest = hardest;
+        }
+
+        public boolean isSolved() {
+            return solved;
+        }
+
+        // Solved board, or the board as far as the techniques got
+        public int[][] getBoard() {
+            return board;
+        }
+
+        // Every placement and elimination in the order applied
+        public List<Hint> getSteps() {
+            return steps;
+        }
+
+        // Sum of the cost of every technique application
+        public int getScore() {
+            return score;
+        }
+
+        // Most expensive technique used, null when the board was already full
+        public Technique getHardest() {
+            return hardest;
+        }
+    }
+
+    private static final class Search {
+
+        private final int[] cells = new int[81];
+        private final int[] masks = new int[81];
+        private final List<Hint> steps = new ArrayList<>();
+        private int empty;
+        private int score;
+        private Technique hardest;
+
+        Search(int[][] board) throws InvalidGame {
+            int[] used = new int[27];
+
+            for (int r = 0; r < 9; r++) {
+                for (int c = 0; c < 9; c++) {
+                    int v = board[r][c];
+
+                    if (v < 0 || v > 9)
+                        throw new InvalidGame("Cell value out of range: " + v);
+
+                    if (v == 0) {
+                        empty++;
+                        continue;
+                    }
+
+                    int bit = 1 << (v - 1);
+                    for (int u : Units.OF_CELL[r * 9 + c]) {
+                        if ((used[u] & bit) != 0)
+                            throw new InvalidGame("Board is invalid");
+                        used[u] |= bit;
+                    }
+                    cells[r * 9 + c] = v;
+                }
+            }
+
+            for (int i = 0; i < 81; i++) {
+                int[] u = Units.OF_CELL[i];
+                if (cells[i] == 0)
+                    masks[i] = ~(used[u[0]] | used[u[1]] | used[u[2]]) & ALL;
+            }
+        }
+
+        void run() {
+            List<Hint> step = new ArrayList<>();
+
+            while (empty > 0) {
+                // A blank with no candidate left: the puzzle has no solution
+                for (int i = 0; i < 81; i++)
+                    if (cells[i] == 0 && masks[i] == 0)
+                        return;
+
+                step.clear();
+                if (!Techniques.next(masks, step))
+                    return;
+
+                for (Hint hint : step)
+                    apply(hint);
+                steps.addAll(step);
+                record(step.get(0).getTechnique());
+            }
+        }
+
+        Result result() {
+            int[][] board = new int[9][9];
+            for (int i = 0; i < 81; i++)
+                board[i / 9][i % 9] = cells[i];
+
+            return new Result(empty == 0, board,
+                    Collections.unmodifiableList(steps), score, hardest);
+        }
+
+        private void apply(Hint hint) {
+            int bit = 1 << (hint.getDigit() - 1);
+
+            if (hint.isPlacement()) {
+                int i = hint.getRow() * 9 + hint.getCol();
+                cells[i] = hint.getDigit();
+                masks[i] = 0;
+                for (int peer : Units.PEERS[i])
+                    masks[peer] &= ~bit;
+                empty--;
+                return;
+            }
+
+            InvalidCells eliminated = hint.getEliminations();
+            for (int i = eliminated.nextCell(0); i >= 0; i = eliminated.nextCell(i + 1))
+                masks[i] &= ~bit;
+        }
+
+        private void record(Technique technique) {
+            score += technique.getCost();
+            if (hardest == null || technique.compareTo(hardest) > 0)
+                hardest = technique;
+        }
+    }
+}
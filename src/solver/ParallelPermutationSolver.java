@@ -1,97 +1,133 @@
 package solver;
 
 import model.Cell;
+import verifier.BitboardVerifier;
 import verifier.SudokuVerifier;
-import verifier.VerificationResult;
 import controller.exceptions.InvalidGame;
 
 import java.util.List;
-import java.util.concurrent.*;
-import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.atomic.AtomicReference;
 
-public class ParallelPermutationSolver {
+public class ParallelPermutationSolver implements Solver {
+
+    private static final ForkJoinPool POOL = ForkJoinPool.commonPool();
 
     private final SudokuVerifier verifier = new SudokuVerifier();
-    private final AtomicBoolean solved = new AtomicBoolean(false);
-    private volatile int[] solution;
 
-    public int[] solve(int[][] board) throws InvalidGame {
+    @Override
+    public boolean supports(int emptyCells) {
+        return emptyCells == PermutationSolver.CELLS;
+    }
 
-        if (verifier.verify(board) == VerificationResult.INVALID)
-            throw new InvalidGame("Board is invalid");
+    // Every permutation checked counts as a node; throws CancellationException when control is cancelled
+    @Override
+    public int[] solve(int[][] board, SearchControl control) throws InvalidGame {
 
-        EmptyCellIterator cellIterator =
-                new EmptyCellIterator(board);
+        List<Cell> emptyCells = PermutationSolver.emptyCells(verifier, board);
 
-        List<Cell> emptyCells = cellIterator.getCells();
+        // All search state lives here, nothing is kept on the solver between calls
+        Search search = new Search(board, emptyCells, control);
 
-        if (emptyCells.size() != 5)
-            throw new InvalidGame("Requires exactly 5 empty cells");
+        POOL.invoke(new FirstDigitSplit(search));
 
-        PermutationIterator permIterator =
-                new PermutationIterator(5);
+        int[] values = search.solution.get();
 
-        ExecutorService pool =
-                Executors.newFixedThreadPool(
-                        Runtime.getRuntime().availableProcessors());
+        if (values == null) {
+            control.checkCancelled();
+            throw new InvalidGame("No solution found");
+        }
 
-        while (permIterator.hasNext() && !solved.get()) {
-            int[] perm = permIterator.next();
+        return PermutationSolver.buildSolution(emptyCells, values);
+    }
 
-            pool.submit(() -> {
-                if (solved.get()) return;
+    private final class Search {
 
-                if (applyAndCheck(board, emptyCells, perm)) {
-                    solution = buildSolution(emptyCells, perm);
-                    solved.set(true);
-                }
-            });
+        private final int[][] board;
+        private final List<Cell> cells;
+        private final AtomicReference<int[]> solution = new AtomicReference<>();
+        private final SearchControl control;
+
+        Search(int[][] board, List<Cell> cells, SearchControl control) {
+            this.board = board;
+            this.cells = cells;
+            this.control = control;
+        }
+
+        // Stops every range once one found the answer or the caller gave up
+        boolean isSolved() {
+            return solution.get() != null || control.isCancelled();
         }
+    }
+
+    // Splits the search space into 9 ranges, one per digit of the first empty cell
+    private final class FirstDigitSplit extends RecursiveAction {
+
+        private static final long serialVersionUID = 1L;
 
-        pool.shutdown();
+        private final Search search;
 
-        try {
-            pool.awaitTermination(1, TimeUnit.MINUTES);
-        } catch (InterruptedException e) {
-            Thread.currentThread().interrupt();
+        FirstDigitSplit(Search search) {
+            this.search = search;
         }
 
-        if (solution == null)
-            throw new InvalidGame("No solution found");
+        @Override
+        protected void compute() {
+            DigitRange[] ranges = new DigitRange[9];
+
+            for (int d = 1; d <= 9; d++) {
+                ranges[d - 1] = new DigitRange(search, d);
+                ranges[d - 1].fork();
+            }
 
-        return solution;
+            // Joins even once solved, so no range adds nodes after solve() returns;
+            // ranges not yet started see isSolved() and return at once
+            for (DigitRange range : ranges)
+                range.quietlyJoin();
+        }
     }
 
-    private boolean applyAndCheck(int[][] board,
-                                  List<Cell> cells,
-                                  int[] values) {
+    // Enumerates every permutation of the remaining cells for one fixed first digit
+    private final class DigitRange extends RecursiveAction {
 
-        int[][] test = copyBoard(board);
+        private static final long serialVersionUID = 1L;
 
-        for (int i = 0; i < 5; i++) {
-            Cell c = cells.get(i);
-            Digit d = Digit.Factory.get(values[i]);
-            test[c.getRow()][c.getCol()] = d.getValue();
+        private final Search search;
+        private final int firstDigit;
+
+        DigitRange(Search search, int firstDigit) {
+            this.search = search;
+            this.firstDigit = firstDigit;
         }
 
-        return verifier.verify(test) == VerificationResult.VALID;
-    }
+        @Override
+        protected void compute() {
+            if (search.isSolved())
+                return;
 
-    private int[][] copyBoard(int[][] src) {
-        int[][] copy = new int[9][9];
-        for (int i = 0; i < 9; i++)
-            System.arraycopy(src[i], 0, copy[i], 0, 9);
-        return copy;
-    }
+            List<Cell> cells = search.cells;
+            PermutationIterator iterator = new PermutationIterator(cells.size(), firstDigit);
+
+            // Each range owns its bitboard and only re-places the cells the iterator changed
+            BitboardVerifier bits = new BitboardVerifier();
+            bits.load(search.board);
+
+            long checked = 0;
+
+            while (iterator.hasNext() && !search.isSolved()) {
+                int[] values = iterator.next();
+
+                if (++checked % SearchControl.CHECK_INTERVAL == 0)
+                    search.control.addNodes(SearchControl.CHECK_INTERVAL);
+
+                if (PermutationSolver.applyAndCheck(bits, cells, values, iterator.changed())) {
+                    search.solution.compareAndSet(null, values.clone());
+                    break;
+                }
+            }
 
-    private int[] buildSolution(List<Cell> cells, int[] values) {
-        int[] sol = new int[15];
-        for (int i = 0; i < 5; i++) {
-            Cell c = cells.get(i);
-            sol[i * 3] = c.getRow();
-            sol[i * 3 + 1] = c.getCol();
-            sol[i * 3 + 2] = values[i];
+            search.control.addNodes(checked % SearchControl.CHECK_INTERVAL);
         }
-        return sol;
     }
 }
@@ -0,0 +1,85 @@
+package solver;
+
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+
+/**
+ * Odometer over every assignment of digits 1..9 to size positions, the last
+ * position turning fastest. Optionally the first position stays fixed, which
+ * is how ParallelPermutationSolver splits the space into ranges.
+ *
+ * next() returns the same array each time, advanced in place; changed() tells
+ * which positions differ from the previous assignment so callers only
+ * re-place those.
+ */
+class PermutationIterator implements Iterator<int[]> {
+
+    private final int size;
+    private final int[] current;
+    private long remaining;
+    private int changed = -1;
+
+    public PermutationIterator(int size) {
+        this.size = size;
+        this.current = new int[size];
+
+        for (int i = 0; i < size; i++) {
+            current[i] = 1;
+        }
+
+        this.remaining = pow9(size);
+    }
+
+    // Every assignment whose first position is firstDigit
+    public PermutationIterator(int size, int firstDigit) {
+        this(size);
+        current[0] = firstDigit;
+        remaining = pow9(size - 1);
+    }
+
+    @Override
+    public boolean hasNext() {
+        return remaining > 0;
+    }
+
+    @Override
+    public int[] next() {
+        if (remaining == 0) {
+            throw new NoSuchElementException();
+        }
+
+        if (changed < 0) {
+            changed = 0;
+        } else {
+            increment();
+        }
+        remaining--;
+
+        return current;
+    }
+
+    // Lowest position that differs from the previous assignment, 0 for the first one
+    public int changed() {
+        return changed;
+    }
+
+    private void increment() {
+        int pos = size - 1;
+
+        while (current[pos] == 9) {
+            current[pos] = 1;
+            pos--;
+        }
+
+        current[pos]++;
+        changed = pos;
+    }
+
+    private static long pow9(int n) {
+        long p = 1;
+        for (int i = 0; i < n; i++) {
+            p *= 9;
+        }
+        return p;
+    }
+}
@@ -1,133 +1,101 @@
 package solver;
 
 import model.Cell;
+import verifier.BitboardVerifier;
 import verifier.SudokuVerifier;
 import verifier.VerificationResult;
 import controller.exceptions.InvalidGame;
-import java.util.ArrayList;
-import java.util.Iterator;
+
 import java.util.List;
-import java.util.NoSuchElementException;
 
-public class PermutationSolver {
+/**
+ * Tries every assignment of digits to exactly 5 blanks on one thread.
+ * The helpers below are shared with ParallelPermutationSolver.
+ */
+public class PermutationSolver implements Solver {
+
+    static final int CELLS = 5;
 
     private final SudokuVerifier verifier = new SudokuVerifier();
 
-    public int[] solve(int[][] board) throws InvalidGame {
+    @Override
+    public boolean supports(int emptyCells) {
+        return emptyCells == CELLS;
+    }
 
-        if (verifier.verify(board) == VerificationResult.INVALID) {
-            throw new InvalidGame("Board is already invalid");
-        }
+    // Every permutation checked counts as a node
+    @Override
+    public int[] solve(int[][] board, SearchControl control) throws InvalidGame {
 
-        List<Cell> emptyCells = findEmptyCells(board);
+        List<Cell> emptyCells = emptyCells(verifier, board);
 
-        if (emptyCells.size() != 5) {
-            throw new InvalidGame(
-                    "Solver requires exactly 5 empty cells, found: " + emptyCells.size());
-        }
+        BitboardVerifier bits = new BitboardVerifier();
+        bits.load(board);
+
+        PermutationIterator iterator = new PermutationIterator(CELLS);
+        long checked = 0;
 
-        PermutationIterator iterator = new PermutationIterator(5);
+        try {
+            while (iterator.hasNext()) {
+                int[] perm = iterator.next();
 
-        while (iterator.hasNext()) {
-            int[] perm = iterator.next();
+                if (++checked % SearchControl.CHECK_INTERVAL == 0) {
+                    control.addNodes(SearchControl.CHECK_INTERVAL);
+                    control.checkCancelled();
+                }
 
-            if (applyAndCheck(board, emptyCells, perm)) {
-                return buildSolution(emptyCells, perm);
+                if (applyAndCheck(bits, emptyCells, perm, iterator.changed())) {
+                    return buildSolution(emptyCells, perm);
+                }
             }
+        } finally {
+            control.addNodes(checked % SearchControl.CHECK_INTERVAL);
         }
 
         throw new InvalidGame("No solution found");
     }
 
-    private boolean applyAndCheck(int[][] board,
-                                  List<Cell> cells,
-                                  int[] values) {
+    static List<Cell> emptyCells(SudokuVerifier verifier, int[][] board) throws InvalidGame {
 
-        for (int i = 0; i < 5; i++) {
-            Cell c = cells.get(i);
-            Digit d = Digit.Factory.get(values[i]);
-            board[c.getRow()][c.getCol()] = d.getValue();
+        if (verifier.verify(board) == VerificationResult.INVALID) {
+            throw new InvalidGame("Board is already invalid");
         }
 
-        boolean valid =
-                verifier.verify(board) == VerificationResult.VALID;
+        List<Cell> emptyCells = new EmptyCellIterator(board).getCells();
 
-        for (Cell c : cells) {
-            board[c.getRow()][c.getCol()] = 0;
+        if (emptyCells.size() != CELLS) {
+            throw new InvalidGame(
+                    "Solver requires exactly 5 empty cells, found: " + emptyCells.size());
         }
 
-        return valid;
+        return emptyCells;
     }
 
-    private int[] buildSolution(List<Cell> cells, int[] values) {
-        int[] solution = new int[15];
+    // Re-places only values[from..], the cells before from still hold the previous permutation
+    static boolean applyAndCheck(BitboardVerifier bits,
+                                 List<Cell> cells,
+                                 int[] values,
+                                 int from) {
 
-        for (int i = 0; i < 5; i++) {
+        for (int i = from; i < values.length; i++) {
             Cell c = cells.get(i);
-            solution[i * 3] = c.getRow();
-            solution[i * 3 + 1] = c.getCol();
-            solution[i * 3 + 2] = values[i];
-        }
-
-        return solution;
-    }
-
-    private List<Cell> findEmptyCells(int[][] board) {
-        List<Cell> empty = new ArrayList<>();
-        for (int r = 0; r < 9; r++)
-            for (int c = 0; c < 9; c++)
-                if (board[r][c] == 0)
-                    empty.add(new Cell(r, c));
-        return empty;
-    }
-}
-
-
-class PermutationIterator implements Iterator<int[]> {
-
-    private final int size;
-    private final int[] current;
-    private boolean hasNext;
-
-    public PermutationIterator(int size) {
-        this.size = size;
-        this.current = new int[size];
-
-        for (int i = 0; i < size; i++) {
-            current[i] = 1;
-        }
-
-        this.hasNext = true;
-    }
-
-    @Override
-    public boolean hasNext() {
-        return hasNext;
-    }
-
-    @Override
-    public int[] next() {
-        if (!hasNext) {
-            throw new NoSuchElementException();
+            Digit d = Digit.Factory.get(values[i]);
+            bits.place(c.getRow(), c.getCol(), d.getValue());
         }
-        int[] result = current.clone();
-        increment();
 
-        return result;
+        return bits.result() == VerificationResult.VALID;
     }
 
-    private void increment() {
-        int pos = size - 1;
+    static int[] buildSolution(List<Cell> cells, int[] values) {
+        int[] solution = new int[values.length * 3];
 
-        while (pos >= 0 && current[pos] == 9) {
-            current[pos] = 1;
-            pos--;
+        for (int i = 0; i < values.length; i++) {
+            Cell c = cells.get(i);
+            solution[i * 3] = c.getRow();
+            solution[i * 3 + 1] = c.getCol();
+            solution[i * 3 + 2] = values[i];
         }
 
-        if (pos < 0) {
-            hasNext = false;
-        } else {
-            current[pos]++;
-        }
+        return solution;
     }
-}
\ No newline at end of file
+}
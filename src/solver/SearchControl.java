@@ -0,0 +1,47 @@
+package solver;
+
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Shared between a running search and whoever watches it: the search adds the
+ * nodes it visits and polls for cancellation, the watcher reads progress and
+ * may cancel from any thread.
+ *
+ * Searches report their nodes in batches of CHECK_INTERVAL and poll for
+ * cancellation between batches, so neither costs anything per node.
+ */
+public class SearchControl {
+
+    public static final int CHECK_INTERVAL = 1024;
+
+    private final long startNanos = System.nanoTime();
+    private final LongAdder nodes = new LongAdder();
+    private volatile boolean cancelled;
+
+    public void cancel() {
+        cancelled = true;
+    }
+
+    public boolean isCancelled() {
+        return cancelled;
+    }
+
+    // Throws once cancel() was called, searches call it between batches of nodes
+    public void checkCancelled() {
+        if (cancelled)
+            throw new CancellationException("Search cancelled");
+    }
+
+    public void addNodes(long count) {
+        nodes.add(count);
+    }
+
+    public long getNodes() {
+        return nodes.sum();
+    }
+
+    public long getElapsedMillis() {
+        return (System.nanoTime() - startNanos) / 1_000_000;
+    }
+}
@@ -0,0 +1,35 @@
+package solver;
+
+/**
+ * What one Solver.run call produced: the solution triplets,
+ * the search nodes visited and the wall time spent.
+ */
+public class SolveResult {
+
+    private final int[] cells;
+    private final long nodes;
+    private final long elapsedNanos;
+
+    public SolveResult(int[] cells, long nodes, long elapsedNanos) {
+        this.cells = cells;
+        this.nodes = nodes;
+        this.elapsedNanos = elapsedNanos;
+    }
+
+    // (row, col, value) triplets, one per blank of the board
+    public int[] getCells() {
+        return cells;
+    }
+
+    public int getFilledCount() {
+        return cells.length / 3;
+    }
+
+    public long getNodes() {
+        return nodes;
+    }
+
+    public long getElapsedNanos() {
+        return elapsedNanos;
+    }
+}
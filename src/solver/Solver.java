@@ -0,0 +1,34 @@
+package solver;
+
+import controller.exceptions.InvalidGame;
+
+/**
+ * A search engine that fills every blank of a board.
+ * Solutions are (row, col, value) triplets, one per blank.
+ * Engines report the nodes they visit into the control and poll it for
+ * cancellation; SolverSelector picks one per board.
+ */
+public interface Solver {
+
+    // Throws CancellationException when control is cancelled mid-search
+    int[] solve(int[][] board, SearchControl control) throws InvalidGame;
+
+    default int[] solve(int[][] board) throws InvalidGame {
+        return solve(board, new SearchControl());
+    }
+
+    // Whether the engine can take a board with this many blanks
+    default boolean supports(int emptyCells) {
+        return true;
+    }
+
+    // Same as solve, plus the nodes this call added to control and the time it took
+    default SolveResult run(int[][] board, SearchControl control) throws InvalidGame {
+        long nodes = control.getNodes();
+        long start = System.nanoTime();
+
+        int[] cells = solve(board, control);
+
+        return new SolveResult(cells, control.getNodes() - nodes, System.nanoTime() - start);
+    }
+}
@@ -0,0 +1,97 @@
+package solver;
+
+import java.util.Arrays;
+
+/**
+ * Picks the search engine for a board.
+ *
+ * AUTO goes by blank count: bitmask backtracking for most boards, and
+ * dancing links in the minimum-clue range, where puzzles have few solutions
+ * and exact cover prunes the deep searches best. The permutation engines
+ * try 9^5 assignments where backtracking needs a few dozen nodes, so extra
+ * cores never make them the faster choice; they are only used when
+ * configured.
+ *
+ * A configured engine is used for every board it supports, any other board
+ * falls back to the AUTO choice. Safe to share between threads.
+ */
+public class SolverSelector {
+
+    public enum Engine {
+        AUTO,
+        BACKTRACKING,
+        DANCING_LINKS,
+        PERMUTATION,
+        PARALLEL_PERMUTATION
+    }
+
+    // Blank range handed to dancing links under AUTO
+    private static final int DLX_MIN_BLANKS = 58;
+    private static final int DLX_MAX_BLANKS = 66;
+
+    // Dancing links keeps its matrix on the instance, so each thread gets its own
+    private static final ThreadLocal<DancingLinksSolver> DANCING_LINKS =
+            ThreadLocal.withInitial(DancingLinksSolver::new);
+
+    private final Engine engine;
+    private final BacktrackingSolver backtracking = new BacktrackingSolver();
+    private final PermutationSolver permutation = new PermutationSolver();
+    private final ParallelPermutationSolver parallelPermutation = new ParallelPermutationSolver();
+
+    // Engine from -Dsudoku.solver=AUTO|BACKTRACKING|DANCING_LINKS|PERMUTATION|PARALLEL_PERMUTATION
+    public SolverSelector() {
+        this(configuredEngine());
+    }
+
+    public SolverSelector(Engine engine) {
+        this.engine = engine;
+    }
+
+    public Engine getEngine() {
+        return engine;
+    }
+
+    public Solver select(int[][] board) {
+        int empty = 0;
+        for (int[] row : board)
+            for (int v : row)
+                if (v == 0)
+                    empty++;
+
+        return select(empty);
+    }
+
+    public Solver select(int emptyCells) {
+        if (engine != Engine.AUTO) {
+            Solver configured = get(engine);
+            if (configured.supports(emptyCells))
+                return configured;
+        }
+
+        if (emptyCells >= DLX_MIN_BLANKS && emptyCells <= DLX_MAX_BLANKS)
+            return DANCING_LINKS.get();
+
+        return backtracking;
+    }
+
+    // Runs in static initializers, so an unknown name falls back to AUTO rather than throwing
+    private static Engine configuredEngine() {
+        String name = System.getProperty("sudoku.solver", Engine.AUTO.name());
+        try {
+            return Engine.valueOf(name.trim().toUpperCase());
+        } catch (IllegalArgumentException e) {
+            System.err.println("Unknown sudoku.solver '" + name + "', using AUTO. Allowed: "
+                    + Arrays.toString(Engine.values()));
+            return Engine.AUTO;
+        }
+    }
+
+    private Solver get(Engine engine) {
+        return switch (engine) {
+            case BACKTRACKING, AUTO -> backtracking;
+            case DANCING_LINKS -> DANCING_LINKS.get();
+            case PERMUTATION -> permutation;
+            case PARALLEL_PERMUTATION -> parallelPermutation;
+        };
+    }
+}
@@ -0,0 +1,318 @@
+package solver;
+
+import solver.Hint.Technique;
+import verifier.InvalidCells;
+
+import java.util.List;
+
+/**
+ * The solving techniques shared by CandidateEngine and LogicalSolver.
+ *
+ * Each works on 81 candidate masks, 0 for filled cells, and only reports:
+ * the step is added to out as Hints, one per digit for eliminations, and the
+ * caller decides what to apply. Blanks with no candidate left are the
+ * caller's to detect before asking for a step.
+ */
+final class Techniques {
+
+    private static final int ALL = 0x1FF;
+
+    private Techniques() {
+    }
+
+    /**
+     * Adds the cheapest step that makes progress to out, trying techniques in
+     * Technique order. Returns false when none applies.
+     */
+    static boolean next(int[] masks, List<Hint> out) {
+        return nakedSingle(masks, out)
+                || hiddenSingle(masks, out)
+                || lockedCandidates(masks, out)
+                || nakedSubset(masks, 2, Technique.NAKED_PAIR, out)
+                || hiddenSubset(masks, 2, Technique.HIDDEN_PAIR, out)
+                || nakedSubset(masks, 3, Technique.NAKED_TRIPLE, out)
+                || hiddenSubset(masks, 3, Technique.HIDDEN_TRIPLE, out)
+                || fish(masks, 2, Technique.X_WING, out)
+                || fish(masks, 3, Technique.SWORDFISH, out);
+    }
+
+    // ---------- Singles ----------
+
+    private static boolean nakedSingle(int[] masks, List<Hint> out) {
+        for (int i = 0; i < 81; i++) {
+            if (Integer.bitCount(masks[i]) == 1) {
+                out.add(Hint.place(Technique.NAKED_SINGLE, i, Integer.numberOfTrailingZeros(masks[i]) + 1));
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static boolean hiddenSingle(int[] masks, List<Hint> out) {
+        for (int[] unit : Units.CELLS) {
+            // once: digits seen in at least one cell, twice: in two or more
+            int once = 0;
+            int twice = 0;
+            for (int cell : unit) {
+                twice |= once & masks[cell];
+                once |= masks[cell];
+            }
+
+            int single = once & ~twice;
+            if (single == 0)
+                continue;
+
+            int bit = single & -single;
+            for (int cell : unit) {
+                if ((masks[cell] & bit) != 0) {
+                    out.add(Hint.place(Technique.HIDDEN_SINGLE, cell, Integer.numberOfTrailingZeros(bit) + 1));
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+
+    // ---------- Locked candidates ----------
+
+    private static boolean lockedCandidates(int[] masks, List<Hint> out) {
+        // Pointing: a digit confined to one line within a box leaves the rest of the line
+        for (int b = 0; b < 9; b++) {
+            int[] box = Units.CELLS[18 + b];
+            int stack = (b % 3) * 3;
+            int band = (b / 3) * 3;
+
+            for (int d = 0; d < 9; d++) {
+                int bit = 1 << d;
+                int rows = 0;
+                int cols = 0;
+
+                for (int cell : box) {
+                    if ((masks[cell] & bit) != 0) {
+                        rows |= 1 << (cell / 9);
+                        cols |= 1 << (cell % 9);
+                    }
+                }
+
+                if (Integer.bitCount(rows) == 1
+                        && eliminate(masks, Technique.POINTING_PAIR, bit,
+                        Units.CELLS[Integer.numberOfTrailingZeros(rows)], ALL & ~(7 << stack), out))
+                    return true;
+
+                if (Integer.bitCount(cols) == 1
+                        && eliminate(masks, Technique.POINTING_PAIR, bit,
+                        Units.CELLS[9 + Integer.numberOfTrailingZeros(cols)], ALL & ~(7 << band), out))
+                    return true;
+            }
+        }
+
+        // Box-line: a digit confined to one box within a line leaves the rest of the box
+        for (int line = 0; line < 18; line++) {
+            int[] unit = Units.CELLS[line];
+
+            for (int d = 0; d < 9; d++) {
+                int positions = positions(masks, unit, 1 << d);
+                if (positions == 0)
+                    continue;
+
+                for (int third = 0; third < 3; third++) {
+                    if ((positions & ~(7 << third * 3)) != 0)
+                        continue;
+
+                    int box;
+                    int outside;
+                    if (line < 9) {
+                        box = (line / 3) * 3 + third;
+                        outside = ALL & ~(7 << (line % 3) * 3);
+                    } else {
+                        box = third * 3 + (line - 9) / 3;
+                        outside = ALL & ~(0x49 << (line - 9) % 3);
+                    }
+
+                    if (eliminate(masks, Technique.BOX_LINE_REDUCTION, 1 << d, Units.CELLS[18 + box], outside, out))
+                        return true;
+                }
+            }
+        }
+        return false;
+    }
+
+    // ---------- Subsets ----------
+
+    // size blanks of a unit sharing exactly size candidates rule those digits out of the rest of the unit
+    private static boolean nakedSubset(int[] masks, int size, Technique technique, List<Hint> out) {
+        int[] pos = new int[9];
+
+        for (int[] unit : Units.CELLS) {
+            int n = 0;
+            for (int p = 0; p < 9; p++) {
+                int count = Integer.bitCount(masks[unit[p]]);
+                if (count >= 2 && count <= size)
+                    pos[n++] = p;
+            }
+
+            for (int a = 0; a < n; a++) {
+                for (int b = a + 1; b < n; b++) {
+                    int digits = masks[unit[pos[a]]] | masks[unit[pos[b]]];
+                    int members = (1 << pos[a]) | (1 << pos[b]);
+
+                    if (size == 2) {
+                        if (Integer.bitCount(digits) == 2
+                                && eliminate(masks, technique, digits, unit, ALL & ~members, out))
+                            return true;
+                        continue;
+                    }
+
+                    for (int c = b + 1; c < n; c++) {
+                        int all = digits | masks[unit[pos[c]]];
+                        if (Integer.bitCount(all) == 3
+                                && eliminate(masks, technique, all, unit, ALL & ~(members | 1 << pos[c]), out))
+                            return true;
+                    }
+                }
+            }
+        }
+        return false;
+    }
+
+    // size digits confined to the same size cells of a unit rule every other digit out of those cells
+    private static boolean hiddenSubset(int[] masks, int size, Technique technique, List<Hint> out) {
+        int[] digits = new int[9];
+        int[] where = new int[9];
+
+        for (int[] unit : Units.CELLS) {
+            int n = 0;
+            for (int d = 0; d < 9; d++) {
+                int positions = positions(masks, unit, 1 << d);
+                int count = Integer.bitCount(positions);
+                if (count >= 2 && count <= size) {
+                    digits[n] = d;
+                    where[n++] = positions;
+                }
+            }
+
+            for (int a = 0; a < n; a++) {
+                for (int b = a + 1; b < n; b++) {
+                    int cells = where[a] | where[b];
+                    int kept = (1 << digits[a]) | (1 << digits[b]);
+
+                    if (size == 2) {
+                        if (Integer.bitCount(cells) == 2
+                                && eliminate(masks, technique, ALL & ~kept, unit, cells, out))
+                            return true;
+                        continue;
+                    }
+
+                    for (int c = b + 1; c < n; c++) {
+                        int all = cells | where[c];
+                        if (Integer.bitCount(all) == 3
+                                && eliminate(masks, technique, ALL & ~(kept | 1 << digits[c]), unit, all, out))
+                            return true;
+                    }
+                }
+            }
+        }
+        return false;
+    }
+
+    // ---------- Fish ----------
+
+    // size rows whose candidates for a digit share size columns rule it out of those columns elsewhere,
+    // and the same with rows and columns swapped
+    private static boolean fish(int[] masks, int size, Technique technique, List<Hint> out) {
+        int[] base = new int[9];
+        int[] where = new int[9];
+
+        for (int d = 0; d < 9; d++) {
+            int bit = 1 << d;
+
+            for (int cover = 0; cover <= 9; cover += 9) {
+                // Base lines are rows when the cover lines are columns (cover == 9), and vice versa
+                int first = 9 - cover;
+                int n = 0;
+
+                for (int line = 0; line < 9; line++) {
+                    int positions = positions(masks, Units.CELLS[first + line], bit);
+                    int count = Integer.bitCount(positions);
+                    if (count >= 2 && count <= size) {
+                        base[n] = line;
+                        where[n++] = positions;
+                    }
+                }
+
+                for (int a = 0; a < n; a++) {
+                    for (int b = a + 1; b < n; b++) {
+                        int lines = where[a] | where[b];
+                        int bases = (1 << base[a]) | (1 << base[b]);
+
+                        if (size == 2) {
+                            if (Integer.bitCount(lines) == 2
+                                    && eliminateCover(masks, technique, bit, cover, lines, bases, out))
+                                return true;
+                            continue;
+                        }
+
+                        for (int c = b + 1; c < n; c++) {
+                            int all = lines | where[c];
+                            if (Integer.bitCount(all) == 3
+                                    && eliminateCover(masks, technique, bit, cover, all, bases | 1 << base[c], out))
+                                return true;
+                        }
+                    }
+                }
+            }
+        }
+        return false;
+    }
+
+    // Reports bit in every cover line in lines, except where it crosses a base line
+    private static boolean eliminateCover(int[] masks, Technique technique, int bit,
+                                          int cover, int lines, int bases, List<Hint> out) {
+        InvalidCells cells = new InvalidCells();
+
+        for (int m = lines; m != 0; m &= m - 1) {
+            int[] unit = Units.CELLS[cover + Integer.numberOfTrailingZeros(m)];
+            for (int p = 0; p < 9; p++)
+                if ((bases & (1 << p)) == 0 && (masks[unit[p]] & bit) != 0)
+                    cells.add(unit[p] / 9, unit[p] % 9);
+        }
+
+        if (cells.isEmpty())
+            return false;
+
+        out.add(Hint.eliminate(technique, Integer.numberOfTrailingZeros(bit) + 1, cells));
+        return true;
+    }
+
+    // ---------- Helpers ----------
+
+    // Unit positions (bit p for unit[p]) whose cell still has bit as a candidate
+    private static int positions(int[] masks, int[] unit, int bit) {
+        int positions = 0;
+        for (int p = 0; p < 9; p++)
+            if ((masks[unit[p]] & bit) != 0)
+                positions |= 1 << p;
+        return positions;
+    }
+
+    // Reports the digits still present in the unit cells at positions, one Hint per digit
+    private static boolean eliminate(int[] masks, Technique technique, int digits,
+                                     int[] unit, int positions, List<Hint> out) {
+        boolean any = false;
+
+        for (int m = digits; m != 0; m &= m - 1) {
+            int bit = m & -m;
+            InvalidCells cells = new InvalidCells();
+
+            for (int p = 0; p < 9; p++)
+                if ((positions & (1 << p)) != 0 && (masks[unit[p]] & bit) != 0)
+                    cells.add(unit[p] / 9, unit[p] % 9);
+
+            if (!cells.isEmpty()) {
+                out.add(Hint.eliminate(technique, Integer.numberOfTrailingZeros(bit) + 1, cells));
+                any = true;
+            }
+        }
+        return any;
+    }
+}
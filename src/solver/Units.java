@@ -0,0 +1,43 @@
+package solver;
+
+/**
+ * Cell index tables shared by the candidate-based engines, cell index is row * 9 + col.
+ * Units 0..8 are rows, 9..17 columns and 18..26 boxes.
+ */
+final class Units {
+
+    static final int[][] CELLS = new int[27][9];
+    static final int[][] OF_CELL = new int[81][3];
+    static final int[][] PEERS = new int[81][20];
+
+    static {
+        for (int i = 0; i < 81; i++) {
+            int r = i / 9;
+            int c = i % 9;
+            int b = box(r, c);
+
+            CELLS[r][c] = i;
+            CELLS[9 + c][r] = i;
+            CELLS[18 + b][(r % 3) * 3 + c % 3] = i;
+
+            OF_CELL[i][0] = r;
+            OF_CELL[i][1] = 9 + c;
+            OF_CELL[i][2] = 18 + b;
+        }
+
+        for (int i = 0; i < 81; i++) {
+            int n = 0;
+            for (int j = 0; j < 81; j++)
+                if (j != i && (j / 9 == i / 9 || j % 9 == i % 9
+                        || box(j / 9, j % 9) == box(i / 9, i % 9)))
+                    PEERS[i][n++] = j;
+        }
+    }
+
+    private Units() {
+    }
+
+    static int box(int row, int col) {
+        return (row / 3) * 3 + col / 3;
+    }
+}
@@ -0,0 +1,52 @@
+package storage;
+
+import java.io.*;
+import java.nio.file.*;
+
+/**
+ * Text board files, nine rows of space separated digits with 0 for a blank.
+ * Used for solved source boards, import/export and FileStorage's current game.
+ */
+public class BoardFiles {
+
+    public static int[][] load(String path) {
+        int[][] board = new int[9][9];
+        try (BoardParser parser = new BoardParser(new FileInputStream(path))) {
+            if (!parser.next(board))
+                throw new IOException("Empty board file");
+        } catch (IOException e) {
+            throw new RuntimeException("Failed to load board " + path + ": " + e.getMessage());
+        }
+        return board;
+    }
+
+    // Written to a temp file, forced, then renamed over the target, so a crash never leaves half a board
+    public static void save(String path, int[][] board) {
+        Path target = Paths.get(path).toAbsolutePath();
+        Path tmp = target.resolveSibling(target.getFileName() + ".tmp");
+
+        try (FileOutputStream out = new FileOutputStream(tmp.toFile())) {
+            PrintWriter pw = new PrintWriter(out);
+            for (int[] row : board) {
+                for (int val : row)
+                    pw.print(val + " ");
+                pw.println();
+            }
+            pw.flush();
+            if (pw.checkError())
+                throw new IOException("Write failed");
+            out.getFD().sync();
+        } catch (IOException e) {
+            new File(tmp.toString()).delete();
+            throw new RuntimeException("Failed to save board: " + e.getMessage());
+        }
+
+        try {
+            Files.move(tmp, target,
+                    StandardCopyOption.REPLACE_EXISTING,
+                    StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException e) {
+            throw new RuntimeException("Failed to save board: " + e.getMessage());
+        }
+    }
+}
@@ -0,0 +1,16 @@
+package storage;
+
+import java.io.IOException;
+
+/**
+ * Thrown by BoardParser for text that is not a board. The parser has already
+ * skipped to the next line, so callers may keep reading after it.
+ */
+public class BoardFormatException extends IOException {
+
+    private static final long serialVersionUID = 1L;
+
+    public BoardFormatException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,128 @@
+package storage;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+
+/**
+ * Streaming byte-level parser for text boards.
+ * Accepts the 9-line "5 3 0 ..." layout as well as the 81-character
+ * single-line layout where '0' or '.' marks a blank. Boards are read straight
+ * into a caller supplied buffer; the parser itself only owns one fixed read
+ * buffer, so any number of boards can be streamed in constant memory.
+ * Lines starting with '#' are comments. Anything after the 81st cell on its
+ * line (ratings, ids) is ignored. A bad character fails the board with a
+ * BoardFormatException and parsing resumes on the next line.
+ */
+public class BoardParser implements AutoCloseable {
+
+    private static final int BUFFER_SIZE = 64 * 1024;
+
+    private final InputStream in;
+    private final ByteBuffer source;
+    private final byte[] buf;
+    private int pos;
+    private int limit;
+    private boolean lineStart = true;
+
+    public BoardParser(InputStream in) {
+        this.in = in;
+        this.source = null;
+        this.buf = new byte[BUFFER_SIZE];
+    }
+
+    public BoardParser(ByteBuffer source) {
+        this.in = null;
+        this.source = source;
+        this.buf = null;
+    }
+
+    /**
+     * Reads the next board into cells[0..80], row-major.
+     * Returns false when the input ends before a new board starts.
+     */
+    public boolean next(int[] cells) throws IOException {
+        return parse(cells, null);
+    }
+
+    public boolean next(int[][] board) throws IOException {
+        return parse(null, board);
+    }
+
+    // Exactly one of cells / board is used as the target
+    private boolean parse(int[] cells, int[][] board) throws IOException {
+        int n = 0;
+
+        while (n < 81) {
+            int b = read();
+
+            if (b < 0) {
+                if (n == 0)
+                    return false;
+                throw new BoardFormatException("Truncated board: " + n + " cells");
+            }
+
+            if (b == '#' && lineStart) {
+                skipLine();
+                continue;
+            }
+
+            lineStart = b == '\n';
+
+            int value;
+            if (b >= '1' && b <= '9')
+                value = b - '0';
+            else if (b == '0' || b == '.')
+                value = 0;
+            else if (isSeparator(b))
+                continue;
+            else {
+                skipLine();
+                throw new BoardFormatException("Unexpected character '" + (char) b + "'");
+            }
+
+            if (cells != null)
+                cells[n] = value;
+            else
+                board[n / 9][n % 9] = value;
+            n++;
+        }
+
+        skipLine();
+        return true;
+    }
+
+    @Override
+    public void close() throws IOException {
+        if (in != null)
+            in.close();
+    }
+
+    private void skipLine() throws IOException {
+        int b;
+        do {
+            b = read();
+        } while (b >= 0 && b != '\n');
+        lineStart = true;
+    }
+
+    private static boolean isSeparator(int b) {
+        return b == ' ' || b == '\t' || b == '\r' || b == '\n'
+                || b == ',' || b == '|' || b == '-' || b == '+';
+    }
+
+    private int read() throws IOException {
+        if (source != null)
+            return source.hasRemaining() ? source.get() & 0xFF : -1;
+
+        if (pos == limit) {
+            limit = in.read(buf, 0, buf.length);
+            pos = 0;
+            if (limit <= 0) {
+                limit = 0;
+                return -1;
+            }
+        }
+        return buf[pos++] & 0xFF;
+    }
+}
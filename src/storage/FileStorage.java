@@ -0,0 +1,288 @@
+package storage;
+
+import model.DifficultyEnum;
+import model.Game;
+import model.PackedBoard;
+import controller.exceptions.NotFoundException;
+
+import java.io.*;
+import java.nio.file.*;
+import java.util.Arrays;
+import java.util.EnumMap;
+import java.util.Map;
+
+/**
+ * Storage in a directory: one append-only PuzzleStore per difficulty, and under
+ * current/ the game as a text board plus the binary move journal.
+ *
+ * Every cell change rewrites the text board through an atomic rename; it is
+ * the simplest backend, MappedFileStorage is the fast one.
+ * Session views keep their current game under sessions/<id>/ instead.
+ */
+public class FileStorage implements Storage {
+
+    private static final String CURRENT = "current";
+    private static final String SESSIONS = "sessions";
+    private static final String GAME_FILE = "game.txt";
+    private static final String LOG_FILE = "log.bin";
+    private static final String LEGACY_LOG_FILE = "log.txt";
+    private static final String POOL_SUFFIX = ".pool";
+    private static final long DEFAULT_FSYNC_INTERVAL = 1000;
+
+    protected final Path base;
+    protected final Path current;
+
+    private final FsyncPolicy fsyncPolicy;
+    private final long fsyncInterval;
+
+    // Shared with session views, only the owner closes them
+    private final Map<DifficultyEnum, PuzzleStore> pools;
+    private final boolean session;
+
+    // Cached text board, rewritten whole on every cell change
+    private int[][] board;
+
+    // Policy from -Dsudoku.fsync=EVERY_MOVE|INTERVAL|ON_EXIT and -Dsudoku.fsync.interval=<ms>
+    public FileStorage(Path base) {
+        this(base, configuredPolicy(), configuredInterval());
+    }
+
+    public FileStorage(Path base, FsyncPolicy fsyncPolicy, long fsyncInterval) {
+        if (fsyncInterval <= 0)
+            throw new IllegalArgumentException("Fsync interval must be positive");
+
+        this.base = base;
+        this.current = base.resolve(CURRENT);
+        this.fsyncPolicy = fsyncPolicy;
+        this.fsyncInterval = fsyncInterval;
+        this.pools = new EnumMap<>(DifficultyEnum.class);
+        this.session = false;
+
+        createDir(base);
+        createDir(current);
+
+        for (DifficultyEnum level : DifficultyEnum.values()) {
+            pools.put(level, openPool(level));
+            importLegacyGames(level);
+        }
+    }
+
+    protected FileStorage(FileStorage owner, String sessionId) {
+        if (!sessionId.matches("[A-Za-z0-9_-]+"))
+            throw new IllegalArgumentException("Invalid session id: " + sessionId);
+
+        this.base = owner.base;
+        this.current = base.resolve(SESSIONS).resolve(sessionId);
+        this.fsyncPolicy = owner.fsyncPolicy;
+        this.fsyncInterval = owner.fsyncInterval;
+        this.pools = owner.pools;
+        this.session = true;
+
+        createDir(current);
+    }
+
+    // A bad value warns and keeps the default, so a typo cannot stop the game from starting
+    private static FsyncPolicy configuredPolicy() {
+        String name = System.getProperty("sudoku.fsync", FsyncPolicy.INTERVAL.name());
+        try {
+            return FsyncPolicy.valueOf(name.trim().toUpperCase());
+        } catch (IllegalArgumentException e) {
+            System.err.println("Unknown sudoku.fsync '" + name + "', using INTERVAL. Allowed: "
+                    + Arrays.toString(FsyncPolicy.values()));
+            return FsyncPolicy.INTERVAL;
+        }
+    }
+
+    private static long configuredInterval() {
+        long interval = Long.getLong("sudoku.fsync.interval", DEFAULT_FSYNC_INTERVAL);
+        if (interval > 0)
+            return interval;
+
+        System.err.println("sudoku.fsync.interval must be positive, using " + DEFAULT_FSYNC_INTERVAL);
+        return DEFAULT_FSYNC_INTERVAL;
+    }
+
+    @Override
+    public Storage forSession(String sessionId) {
+        return new FileStorage(this, sessionId);
+    }
+
+    private PuzzleStore openPool(DifficultyEnum level) {
+        Path path = base.resolve(level.name().toLowerCase() + POOL_SUFFIX);
+        try {
+            return new PuzzleStore(path);
+        } catch (IOException e) {
+            throw new RuntimeException("Failed to open puzzle store: " + path);
+        }
+    }
+
+    // Moves boards from the old one-file-per-game directories into the pool
+    private void importLegacyGames(DifficultyEnum level) {
+        File folder = base.resolve(level.name().toLowerCase()).toFile();
+        File[] files = folder.listFiles();
+
+        if (files == null)
+            return;
+
+        for (File f : files) {
+            saveGeneratedGame(level, new Game(BoardFiles.load(f.getPath())));
+            f.delete();
+        }
+        folder.delete();
+    }
+
+    private static void createDir(Path path) {
+        try {
+            Files.createDirectories(path);
+        } catch (IOException e) {
+            throw new RuntimeException("Failed to create directory: " + path);
+        }
+    }
+
+    // ================== Pools ==================
+
+    @Override
+    public boolean hasAllDifficultyGames() {
+        for (PuzzleStore pool : pools.values())
+            if (pool.available() == 0)
+                return false;
+        return true;
+    }
+
+    @Override
+    public void saveGeneratedGame(DifficultyEnum level, Game game) {
+        try {
+            pools.get(level).append(game.toPacked());
+        } catch (IOException e) {
+            throw new RuntimeException("Failed to save generated game");
+        }
+    }
+
+    @Override
+    public Game loadGame(DifficultyEnum level)
+            throws NotFoundException {
+
+        PackedBoard packed;
+        try {
+            packed = session
+                    ? pools.get(level).takeNext()
+                    : pools.get(level).peek();
+        } catch (IOException e) {
+            throw new RuntimeException("Failed to load game");
+        }
+
+        if (packed == null)
+            throw new NotFoundException("No game found");
+
+        int[][] board = packed.toArray();
+        saveCurrentGame(board);
+
+        return new Game(board);
+    }
+
+    @Override
+    public void deleteSolvedGame(DifficultyEnum level) {
+
+        if (!session) {
+            try {
+                pools.get(level).consume();
+            } catch (IOException e) {
+                throw new RuntimeException("Failed to update puzzle store");
+            }
+        }
+
+        deleteCurrentGame();
+    }
+
+    // ================== Current Game ==================
+
+    @Override
+    public boolean hasCurrentGame() {
+        return Files.exists(current.resolve(GAME_FILE));
+    }
+
+    @Override
+    public synchronized int[][] loadCurrentGame()
+            throws NotFoundException {
+
+        if (!hasCurrentGame())
+            throw new NotFoundException("No current game");
+
+        board = BoardFiles.load(current.resolve(GAME_FILE).toString());
+        return copy(board);
+    }
+
+    @Override
+    public synchronized void saveCurrentGame(int[][] board) {
+        this.board = copy(board);
+        BoardFiles.save(current.resolve(GAME_FILE).toString(), this.board);
+    }
+
+    @Override
+    public synchronized void saveCurrentCell(int row, int col, int value) {
+        if (board == null)
+            board = BoardFiles.load(current.resolve(GAME_FILE).toString());
+
+        board[row][col] = value;
+        BoardFiles.save(current.resolve(GAME_FILE).toString(), board);
+    }
+
+    // Each save already forces its temp file before the rename
+    @Override
+    public void syncCurrentGame() {
+    }
+
+    @Override
+    public synchronized void deleteCurrentGame() {
+        board = null;
+        current.resolve(GAME_FILE).toFile().delete();
+        current.resolve(LEGACY_LOG_FILE).toFile().delete();
+        deleteMoveLog();
+    }
+
+    // ================== Move Log ==================
+
+    @Override
+    public MoveLog openMoveLog() throws IOException {
+        return new MoveJournal(current.resolve(LOG_FILE));
+    }
+
+    @Override
+    public void deleteMoveLog() {
+        current.resolve(LOG_FILE).toFile().delete();
+    }
+
+    @Override
+    public FsyncPolicy getFsyncPolicy() {
+        return fsyncPolicy;
+    }
+
+    @Override
+    public long getFsyncInterval() {
+        return fsyncInterval;
+    }
+
+    @Override
+    public void close() {
+        if (session)
+            return;
+
+        for (PuzzleStore pool : pools.values()) {
+            try {
+                pool.close();
+            } catch (IOException ignored) {
+            }
+        }
+    }
+
+    protected Path textGameFile() {
+        return current.resolve(GAME_FILE);
+    }
+
+    private static int[][] copy(int[][] board) {
+        int[][] copy = new int[9][];
+        for (int r = 0; r < 9; r++)
+            copy[r] = board[r].clone();
+        return copy;
+    }
+}
@@ -0,0 +1,15 @@
+package storage;
+
+/**
+ * When the current game and its move journal are forced to disk.
+ * Writes always reach the OS straight away; the policy only decides how much
+ * of the latest play a power loss or kernel crash may cost.
+ */
+public enum FsyncPolicy {
+    // Every drained batch of moves is forced before the next one is taken
+    EVERY_MOVE,
+    // At most one force per interval while there are unsynced moves
+    INTERVAL,
+    // Only on flush and when the game is closed
+    ON_EXIT
+}
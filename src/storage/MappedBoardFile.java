@@ -0,0 +1,155 @@
+package storage;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.*;
+import java.util.zip.CRC32;
+
+/**
+ * Binary board file accessed through a memory mapping, with two checksummed slots.
+ *
+ * Layout: 4-byte magic, then two slots of an 8-byte sequence number, one byte
+ * per cell at row * 9 + col and a CRC32 of both. Each write fills the slot not
+ * holding the current board, so a write torn by a crash fails its checksum and
+ * the previous board in the other slot is read instead.
+ */
+public class MappedBoardFile implements AutoCloseable {
+
+    private static final int MAGIC = 0x53424432; // "SBD2"
+    private static final int HEADER = 4;
+    private static final int PAYLOAD = 8 + 81;
+    private static final int SLOT = PAYLOAD + 4;
+    private static final int SIZE = HEADER + 2 * SLOT;
+
+    private final FileChannel channel;
+    private final MappedByteBuffer buffer;
+
+    private final byte[] cells = new byte[81];
+    private final ByteBuffer slot = ByteBuffer.allocate(SLOT);
+    private final CRC32 crc = new CRC32();
+
+    private long sequence;
+    private int active;
+    private boolean valid;
+
+    // False until MAGIC is on disk, an unrecognised header is replaced by the next write()
+    private boolean headerWritten;
+
+    public MappedBoardFile(Path path) throws IOException {
+        channel = FileChannel.open(path,
+                StandardOpenOption.CREATE,
+                StandardOpenOption.READ,
+                StandardOpenOption.WRITE);
+
+        long length = channel.size();
+        buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, SIZE);
+
+        if (length == 0) {
+            commit();
+            writeHeader();
+            valid = true;
+        } else if (buffer.getInt(0) == MAGIC) {
+            headerWritten = true;
+            valid = load();
+        }
+    }
+
+    // Also repairs a corrupt file: the slot is committed before the header marks the file readable
+    public void write(int[][] board) {
+        for (int r = 0; r < 9; r++)
+            for (int c = 0; c < 9; c++)
+                cells[r * 9 + c] = (byte) board[r][c];
+        valid = true;
+        commit();
+
+        if (!headerWritten) {
+            buffer.force();
+            writeHeader();
+        }
+    }
+
+    public void writeCell(int row, int col, int value) {
+        cells[row * 9 + col] = (byte) value;
+        commit();
+    }
+
+    public int[][] read() throws IOException {
+        if (!valid)
+            throw new IOException("Board file is corrupt or not a board file");
+
+        int[][] board = new int[9][9];
+        for (int i = 0; i < 81; i++)
+            board[i / 9][i % 9] = cells[i];
+        return board;
+    }
+
+    // Pushes dirty pages to disk, the OS does it lazily otherwise
+    public void force() {
+        buffer.force();
+    }
+
+    @Override
+    public void close() throws IOException {
+        channel.close();
+    }
+
+    // Writes the in-memory board into the inactive slot, then makes it the active one
+    private void commit() {
+        int target = 1 - active;
+
+        slot.clear();
+        slot.putLong(++sequence).put(cells);
+        crc.reset();
+        crc.update(slot.array(), 0, PAYLOAD);
+        slot.putInt((int) crc.getValue());
+
+        buffer.put(HEADER + target * SLOT, slot.array());
+        active = target;
+    }
+
+    // Picks the newest slot whose checksum holds
+    private boolean load() {
+        int best = -1;
+        long bestSequence = 0;
+
+        for (int i = 0; i < 2; i++) {
+            int base = HEADER + i * SLOT;
+            buffer.get(base, slot.array());
+
+            crc.reset();
+            crc.update(slot.array(), 0, PAYLOAD);
+            if ((int) crc.getValue() != slot.getInt(PAYLOAD))
+                continue;
+
+            long seq = slot.getLong(0);
+            if (best >= 0 && seq <= bestSequence)
+                continue;
+
+            boolean inRange = true;
+            for (int c = 0; c < 81; c++)
+                if (slot.get(8 + c) < 0 || slot.get(8 + c) > 9)
+                    inRange = false;
+            if (!inRange)
+                continue;
+
+            best = i;
+            bestSequence = seq;
+            slot.position(8);
+            slot.get(cells);
+        }
+
+        if (best < 0)
+            return false;
+
+        sequence = bestSequence;
+        active = best;
+        return true;
+    }
+
+    private void writeHeader() {
+        buffer.putInt(0, MAGIC);
+        headerWritten = true;
+    }
+}
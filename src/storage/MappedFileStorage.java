@@ -0,0 +1,115 @@
+package storage;
+
+import controller.exceptions.NotFoundException;
+
+import java.io.IOException;
+import java.nio.file.*;
+
+/**
+ * FileStorage with the current game in a memory-mapped MappedBoardFile,
+ * so a move is a small store into the mapping instead of a file rewrite.
+ * A text game.txt left by FileStorage or older versions is imported once.
+ */
+public class MappedFileStorage extends FileStorage {
+
+    private static final String GAME_FILE = "game.bin";
+
+    private MappedBoardFile mapped;
+
+    public MappedFileStorage(Path base) {
+        super(base);
+    }
+
+    public MappedFileStorage(Path base, FsyncPolicy fsyncPolicy, long fsyncInterval) {
+        super(base, fsyncPolicy, fsyncInterval);
+    }
+
+    private MappedFileStorage(MappedFileStorage owner, String sessionId) {
+        super(owner, sessionId);
+    }
+
+    @Override
+    public Storage forSession(String sessionId) {
+        return new MappedFileStorage(this, sessionId);
+    }
+
+    @Override
+    public boolean hasCurrentGame() {
+        return Files.exists(current.resolve(GAME_FILE)) || super.hasCurrentGame();
+    }
+
+    @Override
+    public int[][] loadCurrentGame()
+            throws NotFoundException {
+
+        // Text saves are imported once into the binary file
+        if (!Files.exists(current.resolve(GAME_FILE)) && super.hasCurrentGame()) {
+            int[][] imported = BoardFiles.load(textGameFile().toString());
+            saveCurrentGame(imported);
+            textGameFile().toFile().delete();
+            return imported;
+        }
+
+        if (!Files.exists(current.resolve(GAME_FILE)))
+            throw new NotFoundException("No current game");
+
+        try {
+            return board().read();
+        } catch (IOException e) {
+            throw new NotFoundException("Current game is corrupt: " + e.getMessage());
+        }
+    }
+
+    // A new board is rare, so it goes to disk straight away
+    @Override
+    public void saveCurrentGame(int[][] board) {
+        MappedBoardFile file = board();
+        file.write(board);
+        file.force();
+    }
+
+    // A move rewrites one small slot of the mapped file, forcing it is left to the move writer
+    @Override
+    public void saveCurrentCell(int row, int col, int value) {
+        board().writeCell(row, col, value);
+    }
+
+    @Override
+    public void syncCurrentGame() {
+        board().force();
+    }
+
+    @Override
+    public void deleteCurrentGame() {
+        closeBoard();
+        current.resolve(GAME_FILE).toFile().delete();
+        super.deleteCurrentGame();
+    }
+
+    @Override
+    public void close() {
+        closeBoard();
+        super.close();
+    }
+
+    private synchronized MappedBoardFile board() {
+        if (mapped == null) {
+            try {
+                mapped = new MappedBoardFile(current.resolve(GAME_FILE));
+            } catch (IOException e) {
+                throw new RuntimeException("Failed to open current game file");
+            }
+        }
+        return mapped;
+    }
+
+    private synchronized void closeBoard() {
+        if (mapped == null)
+            return;
+        try {
+            mapped.close();
+        } catch (IOException ignored) {
+        }
+        mapped = null;
+    }
+}
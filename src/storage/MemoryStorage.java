@@ -0,0 +1,187 @@
+package storage;
+
+import model.DifficultyEnum;
+import model.Game;
+import model.PackedBoard;
+import controller.exceptions.NotFoundException;
+
+import java.util.ArrayDeque;
+import java.util.Arrays;
+import java.util.EnumMap;
+import java.util.Map;
+
+/**
+ * Storage kept entirely on the heap, for tests, benchmarks and throwaway sessions.
+ * Nothing outlives the instance, so syncing is a no-op.
+ */
+public class MemoryStorage implements Storage {
+
+    // Shared with session views and guarded by itself
+    private final Map<DifficultyEnum, ArrayDeque<PackedBoard>> pools;
+    private final boolean session;
+
+    private final Log log = new Log();
+    private PackedBoard current;
+
+    public MemoryStorage() {
+        pools = new EnumMap<>(DifficultyEnum.class);
+        session = false;
+
+        for (DifficultyEnum level : DifficultyEnum.values())
+            pools.put(level, new ArrayDeque<>());
+    }
+
+    private MemoryStorage(MemoryStorage owner) {
+        pools = owner.pools;
+        session = true;
+    }
+
+    @Override
+    public Storage forSession(String sessionId) {
+        return new MemoryStorage(this);
+    }
+
+    @Override
+    public synchronized boolean hasCurrentGame() {
+        return current != null;
+    }
+
+    @Override
+    public boolean hasAllDifficultyGames() {
+        synchronized (pools) {
+            for (ArrayDeque<PackedBoard> pool : pools.values())
+                if (pool.isEmpty())
+                    return false;
+            return true;
+        }
+    }
+
+    @Override
+    public void saveGeneratedGame(DifficultyEnum level, Game game) {
+        synchronized (pools) {
+            pools.get(level).addLast(game.toPacked());
+        }
+    }
+
+    @Override
+    public Game loadGame(DifficultyEnum level)
+            throws NotFoundException {
+
+        PackedBoard packed;
+        synchronized (pools) {
+            packed = session
+                    ? pools.get(level).pollFirst()
+                    : pools.get(level).peekFirst();
+        }
+
+        if (packed == null)
+            throw new NotFoundException("No game found");
+
+        synchronized (this) {
+            current = packed.copy();
+        }
+        return new Game(packed.toArray());
+    }
+
+    @Override
+    public synchronized int[][] loadCurrentGame()
+            throws NotFoundException {
+
+        if (current == null)
+            throw new NotFoundException("No current game");
+        return current.toArray();
+    }
+
+    @Override
+    public synchronized void saveCurrentGame(int[][] board) {
+        current = PackedBoard.fromArray(board);
+    }
+
+    @Override
+    public synchronized void saveCurrentCell(int row, int col, int value) {
+        if (current == null)
+            current = new PackedBoard();
+        current.set(row, col, value);
+    }
+
+    @Override
+    public void syncCurrentGame() {
+    }
+
+    @Override
+    public void deleteSolvedGame(DifficultyEnum level) {
+        if (!session) {
+            synchronized (pools) {
+                pools.get(level).pollFirst();
+            }
+        }
+        deleteCurrentGame();
+    }
+
+    @Override
+    public synchronized void deleteCurrentGame() {
+        current = null;
+        deleteMoveLog();
+    }
+
+    @Override
+    public MoveLog openMoveLog() {
+        return log;
+    }
+
+    @Override
+    public void deleteMoveLog() {
+        log.clear();
+    }
+
+    @Override
+    public FsyncPolicy getFsyncPolicy() {
+        return FsyncPolicy.ON_EXIT;
+    }
+
+    @Override
+    public long getFsyncInterval() {
+        return Long.MAX_VALUE;
+    }
+
+    @Override
+    public void close() {
+    }
+
+    // Outlives each writer that opens it, until the game is deleted
+    private static final class Log implements MoveLog {
+
+        private int[] moves = new int[64];
+        private int size;
+
+        @Override
+        public synchronized void append(int[] src, int from, int count) {
+            if (size + count > moves.length)
+                moves = Arrays.copyOf(moves, Math.max(moves.length * 2, size + count));
+            System.arraycopy(src, from, moves, size, count);
+            size += count;
+        }
+
+        @Override
+        public synchronized void truncate(int count) {
+            size = Math.max(0, size - count);
+        }
+
+        @Override
+        public synchronized int[] readAll() {
+            return Arrays.copyOf(moves, size);
+        }
+
+        @Override
+        public void force() {
+        }
+
+        @Override
+        public void close() {
+        }
+
+        synchronized void clear() {
+            size = 0;
+        }
+    }
+}
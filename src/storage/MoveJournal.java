@@ -0,0 +1,99 @@
+package storage;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.*;
+
+/**
+ * Append-only binary log of moves, 4 bytes per record.
+ * Each record is a MoveTree packed move (row, col, newValue, prevValue).
+ * The file length is the tail pointer, so undo is a truncate and emptiness
+ * a size check.
+ */
+public class MoveJournal implements MoveLog {
+
+    static final int RECORD = 4;
+
+    private final FileChannel channel;
+    private ByteBuffer buffer = ByteBuffer.allocate(RECORD * 64);
+    private long size;
+
+    public MoveJournal(Path path) throws IOException {
+        channel = FileChannel.open(path,
+                StandardOpenOption.CREATE,
+                StandardOpenOption.READ,
+                StandardOpenOption.WRITE);
+
+        // Drop a torn record left by a crash mid-append
+        size = channel.size() / RECORD * RECORD;
+        if (size != channel.size())
+            channel.truncate(size);
+    }
+
+    public void append(int move) throws IOException {
+        append(new int[]{move}, 0, 1);
+    }
+
+    // Writes count moves with a single positional write
+    @Override
+    public void append(int[] moves, int from, int count) throws IOException {
+        if (count == 0)
+            return;
+
+        if (buffer.capacity() < count * RECORD)
+            buffer = ByteBuffer.allocate(count * RECORD);
+
+        buffer.clear();
+        for (int i = 0; i < count; i++)
+            buffer.putInt(moves[from + i]);
+        buffer.flip();
+
+        long position = size;
+        while (buffer.hasRemaining())
+            position += channel.write(buffer, position);
+        size = position;
+    }
+
+    @Override
+    public void truncate(int count) throws IOException {
+        size = Math.max(0, size - (long) count * RECORD);
+        channel.truncate(size);
+    }
+
+    @Override
+    public int[] readAll() throws IOException {
+        ByteBuffer all = ByteBuffer.allocate((int) size);
+        while (all.hasRemaining())
+            if (channel.read(all, all.position()) < 0)
+                throw new IOException("Journal truncated");
+        all.flip();
+
+        int[] moves = new int[(int) (size / RECORD)];
+        for (int i = 0; i < moves.length; i++)
+            moves[i] = all.getInt();
+        return moves;
+    }
+
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    public int count() {
+        return (int) (size / RECORD);
+    }
+
+    public void clear() throws IOException {
+        truncate(count());
+    }
+
+    @Override
+    public void force() throws IOException {
+        channel.force(false);
+    }
+
+    @Override
+    public void close() throws IOException {
+        channel.close();
+    }
+}
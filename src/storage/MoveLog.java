@@ -0,0 +1,21 @@
+package storage;
+
+import java.io.IOException;
+
+/**
+ * Append-only log of MoveTree packed moves for the current game.
+ */
+public interface MoveLog extends AutoCloseable {
+
+    void append(int[] moves, int from, int count) throws IOException;
+
+    // Drops the last count moves
+    void truncate(int count) throws IOException;
+
+    int[] readAll() throws IOException;
+
+    void force() throws IOException;
+
+    @Override
+    void close() throws IOException;
+}
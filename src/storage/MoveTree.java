@@ -0,0 +1,207 @@
+package storage;
+
+import java.util.Arrays;
+
+/**
+ * In-memory history of moves packed into ints, kept as a tree so that undoing
+ * and then playing a different move starts a new branch instead of dropping
+ * the old one.
+ *
+ * Nodes live in flat arrays indexed by creation order: the packed move, the
+ * parent index (ROOT for first moves), the depth and the child redo follows,
+ * which is the one most recently left by undo or reached by a jump.
+ * A packed move is row << 24 | col << 16 | newValue << 8 | prevValue,
+ * the same 4 bytes MoveJournal writes to disk.
+ */
+public class MoveTree {
+
+    public static final int ROOT = -1;
+
+    // Set on a patch returned by jump that takes its move back, packed moves never use the top bit
+    public static final int UNDO = 0x80000000;
+
+    private int[] moves = new int[64];
+    private int[] parent = new int[64];
+    private int[] depth = new int[64];
+    private int[] redoChild = new int[64];
+    private int count;
+
+    private int current = ROOT;
+    private int rootRedo = ROOT;
+
+    public static int pack(int row, int col, int newValue, int prevValue) {
+        return row << 24 | col << 16 | newValue << 8 | prevValue;
+    }
+
+    public static int row(int move) {
+        return move >>> 24 & 0xFF;
+    }
+
+    public static int col(int move) {
+        return move >>> 16 & 0xFF;
+    }
+
+    public static int newValue(int move) {
+        return move >>> 8 & 0xFF;
+    }
+
+    public static int prevValue(int move) {
+        return move & 0xFF;
+    }
+
+    // Plays move from the current node and returns its node, reusing the redo child when it is the same move
+    public int push(int move) {
+        int next = redoOf(current);
+        if (next != ROOT && moves[next] == move) {
+            current = next;
+            return next;
+        }
+
+        if (count == moves.length)
+            grow();
+
+        int node = count++;
+        moves[node] = move;
+        parent[node] = current;
+        depth[node] = current == ROOT ? 1 : depth[current] + 1;
+        redoChild[node] = ROOT;
+
+        setRedo(current, node);
+        current = node;
+        return node;
+    }
+
+    public boolean canUndo() {
+        return current != ROOT;
+    }
+
+    public int undo() {
+        int node = current;
+        current = parent[node];
+        setRedo(current, node);
+        return moves[node];
+    }
+
+    public boolean canRedo() {
+        return redoOf(current) != ROOT;
+    }
+
+    public int redo() {
+        current = redoOf(current);
+        return moves[current];
+    }
+
+    // The move redo would play, without playing it
+    public int redoMove() {
+        return moves[redoOf(current)];
+    }
+
+    /**
+     * Moves the current node to target and returns the patches that take the
+     * board along, as path(target) gives them.
+     */
+    public int[] jump(int target) {
+        int[] patches = path(target);
+
+        // The replayed moves come last, walk them back up from target to point redo down the path
+        int node = target;
+        for (int i = patches.length - 1; i >= 0 && (patches[i] & UNDO) == 0; i--) {
+            setRedo(parent[node], node);
+            node = parent[node];
+        }
+
+        current = target;
+        return patches;
+    }
+
+    /**
+     * Returns the patches that take the board from the current node to target,
+     * without moving: moves to undo (flagged with UNDO) up to the common
+     * ancestor, then moves to replay down to target. Costs O(depth) rather
+     * than a replay from the start.
+     */
+    public int[] path(int target) {
+        if (target < ROOT || target >= count)
+            throw new IllegalArgumentException("No history node " + target);
+
+        int up = current;
+        int down = target;
+        int upCount = 0;
+        int downCount = 0;
+
+        // Walk the deeper side first, then both, until they meet
+        int[] upPath = new int[depthOf(up)];
+        int[] downPath = new int[depthOf(down)];
+
+        while (depthOf(up) > depthOf(down)) {
+            upPath[upCount++] = up;
+            up = parent[up];
+        }
+        while (depthOf(down) > depthOf(up)) {
+            downPath[downCount++] = down;
+            down = parent[down];
+        }
+        while (up != down) {
+            upPath[upCount++] = up;
+            up = parent[up];
+            downPath[downCount++] = down;
+            down = parent[down];
+        }
+
+        int[] patches = new int[upCount + downCount];
+        int n = 0;
+
+        for (int i = 0; i < upCount; i++)
+            patches[n++] = moves[upPath[i]] | UNDO;
+
+        for (int i = downCount - 1; i >= 0; i--)
+            patches[n++] = moves[downPath[i]];
+
+        return patches;
+    }
+
+    public int current() {
+        return current;
+    }
+
+    public int size() {
+        return count;
+    }
+
+    public int move(int node) {
+        return moves[node];
+    }
+
+    public int parent(int node) {
+        return parent[node];
+    }
+
+    public int depthOf(int node) {
+        return node == ROOT ? 0 : depth[node];
+    }
+
+    public void clear() {
+        count = 0;
+        current = ROOT;
+        rootRedo = ROOT;
+    }
+
+    private int redoOf(int node) {
+        return node == ROOT ? rootRedo : redoChild[node];
+    }
+
+    private void setRedo(int node, int child) {
+        if (node == ROOT)
+            rootRedo = child;
+        else
+            redoChild[node] = child;
+    }
+
+    private void grow() {
+        int size = moves.length * 2;
+        moves = Arrays.copyOf(moves, size);
+        parent = Arrays.copyOf(parent, size);
+        depth = Arrays.copyOf(depth, size);
+        redoChild = Arrays.copyOf(redoChild, size);
+    }
+}
@@ -0,0 +1,185 @@
+package storage;
+
+import model.PackedBoard;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.*;
+
+/**
+ * Append-only pool of puzzles for one difficulty, kept in a single file.
+ *
+ * Layout: a 16-byte header (magic, version, record count, index of the next
+ * unused record) followed by fixed-size records of one status byte plus
+ * PackedBoard.BYTES of nibbles. Puzzles are handed out in append order, so
+ * "next unused" is just the header cursor. Consumed records stay in the file
+ * until compact() rewrites it without them.
+ */
+public class PuzzleStore implements AutoCloseable {
+
+    private static final int MAGIC = 0x53505A4C; // "SPZL"
+    private static final int VERSION = 1;
+    private static final int HEADER = 16;
+    private static final int RECORD = 1 + PackedBoard.BYTES;
+    private static final byte UNUSED = 0;
+    private static final byte CONSUMED = 1;
+
+    // Compact automatically once this many consumed records pile up in front
+    private static final int COMPACT_THRESHOLD = 1024;
+
+    private final Path path;
+    private final ByteBuffer header = ByteBuffer.allocate(HEADER);
+    private final ByteBuffer record = ByteBuffer.allocate(RECORD);
+    private FileChannel channel;
+    private int count;
+    private int next;
+
+    public PuzzleStore(Path path) throws IOException {
+        this.path = path;
+        open();
+    }
+
+    public synchronized int available() {
+        return count - next;
+    }
+
+    public synchronized void append(PackedBoard board) throws IOException {
+        record.clear();
+        record.put(UNUSED);
+        board.writeTo(record);
+        record.flip();
+        writeFully(record, offset(count));
+
+        count++;
+        writeHeader();
+    }
+
+    // The next unused puzzle without consuming it, or null when the pool is empty
+    public synchronized PackedBoard peek() throws IOException {
+        if (next >= count)
+            return null;
+
+        record.clear();
+        readFully(record, offset(next));
+        record.flip();
+        record.get();
+        return PackedBoard.readFrom(record);
+    }
+
+    public synchronized PackedBoard takeNext() throws IOException {
+        PackedBoard board = peek();
+        if (board != null)
+            consume();
+        return board;
+    }
+
+    // Marks the puzzle returned by peek() as used
+    public synchronized void consume() throws IOException {
+        if (next >= count)
+            return;
+
+        record.clear();
+        record.put(CONSUMED);
+        record.flip();
+        writeFully(record, offset(next));
+
+        next++;
+        writeHeader();
+
+        if (next >= COMPACT_THRESHOLD && next * 2 >= count)
+            compact();
+    }
+
+    // Rewrites the file with only the unused records and swaps it in atomically
+    public synchronized void compact() throws IOException {
+        if (next == 0)
+            return;
+
+        Path tmp = path.resolveSibling(path.getFileName() + ".tmp");
+
+        try (FileChannel out = FileChannel.open(tmp,
+                StandardOpenOption.CREATE,
+                StandardOpenOption.TRUNCATE_EXISTING,
+                StandardOpenOption.WRITE)) {
+
+            ByteBuffer h = ByteBuffer.allocate(HEADER);
+            h.putInt(MAGIC).putInt(VERSION).putInt(count - next).putInt(0).flip();
+            while (h.hasRemaining())
+                out.write(h);
+
+            long position = offset(next);
+            long remaining = (long) (count - next) * RECORD;
+            while (remaining > 0) {
+                long n = channel.transferTo(position, remaining, out);
+                position += n;
+                remaining -= n;
+            }
+            out.force(true);
+        }
+
+        channel.close();
+        Files.move(tmp, path,
+                StandardCopyOption.REPLACE_EXISTING,
+                StandardCopyOption.ATOMIC_MOVE);
+        open();
+    }
+
+    @Override
+    public synchronized void close() throws IOException {
+        channel.close();
+    }
+
+    private void open() throws IOException {
+        channel = FileChannel.open(path,
+                StandardOpenOption.CREATE,
+                StandardOpenOption.READ,
+                StandardOpenOption.WRITE);
+
+        if (channel.size() < HEADER) {
+            count = 0;
+            next = 0;
+            writeHeader();
+            return;
+        }
+
+        header.clear();
+        readFully(header, 0);
+        header.flip();
+
+        if (header.getInt() != MAGIC || header.getInt() != VERSION)
+            throw new IOException("Not a puzzle store: " + path);
+
+        count = header.getInt();
+        next = header.getInt();
+
+        // A crash between a record write and its header update loses at most that record
+        long records = (channel.size() - HEADER) / RECORD;
+        if (count > records)
+            count = (int) records;
+    }
+
+    private void writeHeader() throws IOException {
+        header.clear();
+        header.putInt(MAGIC).putInt(VERSION).putInt(count).putInt(next).flip();
+        writeFully(header, 0);
+    }
+
+    private long offset(int index) {
+        return HEADER + (long) index * RECORD;
+    }
+
+    private void readFully(ByteBuffer buffer, long position) throws IOException {
+        while (buffer.hasRemaining()) {
+            int n = channel.read(buffer, position);
+            if (n < 0)
+                throw new IOException("Unexpected end of puzzle store: " + path);
+            position += n;
+        }
+    }
+
+    private void writeFully(ByteBuffer buffer, long position) throws IOException {
+        while (buffer.hasRemaining())
+            position += channel.write(buffer, position);
+    }
+}
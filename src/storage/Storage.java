@@ -0,0 +1,64 @@
+package storage;
+
+import model.DifficultyEnum;
+import model.Game;
+import controller.exceptions.NotFoundException;
+
+import java.io.IOException;
+import java.util.Map;
+
+/**
+ * Backend holding the difficulty pools, the current game and its move log.
+ * Each instance is independent, so several can live in one JVM.
+ *
+ * IO failures surface as RuntimeException, a missing game as NotFoundException.
+ */
+public interface Storage extends AutoCloseable {
+
+    boolean hasCurrentGame();
+
+    boolean hasAllDifficultyGames();
+
+    default void saveGeneratedGames(Map<DifficultyEnum, Game> games) {
+        games.forEach(this::saveGeneratedGame);
+    }
+
+    void saveGeneratedGame(DifficultyEnum level, Game game);
+
+    // Copies the next puzzle of level into the current game, it stays in the pool until solved
+    // (sessions take it straight away, see forSession)
+    Game loadGame(DifficultyEnum level) throws NotFoundException;
+
+    int[][] loadCurrentGame() throws NotFoundException;
+
+    void saveCurrentGame(int[][] board);
+
+    void saveCurrentCell(int row, int col, int value);
+
+    // Forces current game writes to durable storage
+    void syncCurrentGame();
+
+    // Drops the solved puzzle from its pool (a session's was taken on load) and deletes the current game
+    void deleteSolvedGame(DifficultyEnum level);
+
+    void deleteCurrentGame();
+
+    // Opens the move log of the current game, creating it empty when there is none
+    MoveLog openMoveLog() throws IOException;
+
+    void deleteMoveLog();
+
+    /**
+     * View sharing this storage's pools, with its own current game and move log
+     * keyed by sessionId. A session takes its puzzle out of the pool when it
+     * loads it, so concurrent sessions never play the same one.
+     */
+    Storage forSession(String sessionId);
+
+    FsyncPolicy getFsyncPolicy();
+
+    long getFsyncInterval();
+
+    @Override
+    void close();
+}
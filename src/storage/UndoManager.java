@@ -2,69 +2,181 @@ package storage;
 
 import view.UserAction;
 
-import java.io.*;
-import java.nio.file.*;
-import java.util.ArrayList;
-import java.util.List;
+import java.io.IOException;
 
 
 public class UndoManager {
 
-    private static final String LOG_PATH = "storage/current/log.txt";
+    private final Storage storage;
 
-    public static UserAction undoLastMove() throws IOException {
+    // Source of truth for undo and redo, the move log trails the current line through the writer
+    private final MoveTree history = new MoveTree();
+    private WriteBehindWriter writer;
 
-        File logFile = new File(LOG_PATH);
+    public UndoManager(Storage storage) {
+        this.storage = storage;
+    }
 
-        if (!logFile.exists()) {
-            throw new IOException("No log file found");
-        }
+    // Only moves change the board, other actions are not journaled
+    public synchronized void record(UserAction action) throws IOException {
+        if (action.getType() != UserAction.ActionType.MOVE)
+            return;
+
+        int move = MoveTree.pack(
+                action.getRow(),
+                action.getCol(),
+                action.getNewValue(),
+                action.getPrevValue());
+
+        // The board already holds the move, so history takes it even when the journal write fails
+        history.push(move);
+        writer().move(move);
+    }
 
-        List<String> lines = Files.readAllLines(logFile.toPath());
+    public synchronized UserAction undoLastMove() throws IOException {
 
-        if (lines.isEmpty()) {
+        if (!history.canUndo()) {
             throw new IOException("No moves to undo");
         }
 
-        String lastLine = lines.get(lines.size() - 1);
-        UserAction lastAction = UserAction.fromString(lastLine);
+        // Journal first: a failed write leaves history and board where they were
+        int move = history.move(history.current());
+        writer().undo(move);
+        history.undo();
+
+        return reverse(move);
+    }
+
+    public synchronized boolean canUndo() {
+        return history.canUndo();
+    }
+
+    public synchronized UserAction redoMove() throws IOException {
 
-        if (lastAction.getType() != UserAction.ActionType.MOVE) {
-            throw new IOException("Cannot undo non-MOVE action");
+        if (!history.canRedo()) {
+            throw new IOException("No moves to redo");
         }
 
-        lines.remove(lines.size() - 1);
-        Files.write(logFile.toPath(), lines);
+        int move = history.redoMove();
+        writer().move(move);
+        history.redo();
 
+        return forward(move);
+    }
 
-        return new UserAction(
-                lastAction.getRow(),
-                lastAction.getCol(),
-                lastAction.getPrevValue(),
-                lastAction.getNewValue()
-        );
+    public synchronized boolean canRedo() {
+        return history.canRedo();
+    }
+
+    /**
+     * Moves to any node of the history tree (MoveTree.ROOT for the loaded puzzle)
+     * and returns the cell patches to apply, in order, as MOVE actions whose
+     * new value is what the cell must hold. History only moves once every
+     * patch is journaled, so a failed write leaves the board to match it.
+     */
+    public synchronized UserAction[] jumpTo(int node) throws IOException {
+        int[] patches = history.path(node);
+        UserAction[] actions = new UserAction[patches.length];
+
+        for (int i = 0; i < patches.length; i++) {
+            int move = patches[i] & ~MoveTree.UNDO;
+
+            if ((patches[i] & MoveTree.UNDO) != 0) {
+                writer().undo(move);
+                actions[i] = reverse(move);
+            } else {
+                writer().move(move);
+                actions[i] = forward(move);
+            }
+        }
+
+        history.jump(node);
+        return actions;
+    }
+
+    public synchronized int currentNode() {
+        return history.current();
     }
 
-    public static boolean canUndo() {
-        File logFile = new File(LOG_PATH);
+    public synchronized int historySize() {
+        return history.size();
+    }
+
+    public synchronized int parentOf(int node) {
+        return history.parent(node);
+    }
+
+    public synchronized UserAction moveAt(int node) {
+        return forward(history.move(node));
+    }
 
-        if (!logFile.exists()) {
-            return false;
+    /**
+     * Rebuilds the undo history from the journal after a restart and
+     * re-applies it to board, which covers moves whose cell write was lost.
+     * Only the current line is journaled, so other branches start empty.
+     */
+    public synchronized void replay(int[][] board) throws IOException {
+        history.clear();
+
+        for (int move : writer().readAll()) {
+            history.push(move);
+
+            int r = MoveTree.row(move);
+            int c = MoveTree.col(move);
+            board[r][c] = MoveTree.newValue(move);
+            storage.saveCurrentCell(r, c, board[r][c]);
         }
+    }
+
+    // Waits for pending moves and forces them to disk, whatever the fsync policy
+    public synchronized void flush() throws IOException {
+        if (writer != null)
+            writer.sync();
+    }
 
-        try {
-            List<String> lines = Files.readAllLines(logFile.toPath());
-            return !lines.isEmpty();
-        } catch (IOException e) {
-            return false;
+    // Flushes and stops the writer, the log stays for the next replay
+    public synchronized void close() throws IOException {
+        if (writer != null) {
+            writer.close();
+            writer = null;
         }
     }
 
-    public static void clearLog() {
-        File logFile = new File(LOG_PATH);
+    public synchronized void clearLog() {
+        history.clear();
 
-        if (logFile.exists()) {
-            logFile.delete();
+        if (writer != null) {
+            try {
+                writer.close();
+            } catch (IOException ignored) {
+            }
+            writer = null;
         }
+
+        storage.deleteMoveLog();
+    }
+
+    private static UserAction forward(int move) {
+        return new UserAction(
+                MoveTree.row(move),
+                MoveTree.col(move),
+                MoveTree.newValue(move),
+                MoveTree.prevValue(move)
+        );
+    }
+
+    private static UserAction reverse(int move) {
+        return new UserAction(
+                MoveTree.row(move),
+                MoveTree.col(move),
+                MoveTree.prevValue(move),
+                MoveTree.newValue(move)
+        );
+    }
+
+    private WriteBehindWriter writer() throws IOException {
+        if (writer == null)
+            writer = new WriteBehindWriter(storage.openMoveLog(), storage);
+        return writer;
     }
-}
\ No newline at end of file
+}
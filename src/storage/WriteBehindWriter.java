@@ -0,0 +1,255 @@
+package storage;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Persists moves and undos after the caller has moved on.
+ *
+ * Pending operations are drained in batches. Within a batch a move directly
+ * followed by its own undo cancels out, runs of moves become one journal write
+ * and runs of undos one truncate. Moves are journaled before their cells are
+ * written and undos restore their cells before the journal is truncated, so
+ * after a crash replaying the journal onto the board file always yields the
+ * state after some prefix of the operations. That only holds while every
+ * batch succeeds, so after a failure nothing more is written: queued
+ * operations are dropped and new ones rejected with the failure.
+ *
+ * Each writer is an actor on a small shared pool: at most one drain task per
+ * writer is queued or running, so one JVM can host thousands of games without
+ * a thread each. Forcing both files to disk is batched by the FsyncPolicy.
+ */
+class WriteBehindWriter implements AutoCloseable {
+
+    private static final int UNDO = MoveTree.UNDO;
+
+    private static final ScheduledExecutorService EXECUTOR =
+            Executors.newScheduledThreadPool(
+                    Math.max(2, Runtime.getRuntime().availableProcessors() / 2),
+                    r -> {
+                        Thread t = new Thread(r, "move-writer");
+                        t.setDaemon(true);
+                        return t;
+                    });
+
+    private final MoveLog journal;
+    private final Storage storage;
+    private final FsyncPolicy policy;
+    private final long intervalMillis;
+
+    // Guarded by this
+    private int[] pending = new int[64];
+    private int pendingCount;
+    private long submitted;
+    private long completed;
+    private boolean scheduled;
+    private boolean timerSet;
+    private boolean syncDue;
+    private boolean closed;
+    private IOException failure;
+
+    // Owned by the running drain task
+    private int[] batch = new int[64];
+    private boolean dirty;
+
+    // Takes ownership of journal, cell writes and syncs go to storage's current game
+    WriteBehindWriter(MoveLog journal, Storage storage) {
+        this.journal = journal;
+        this.storage = storage;
+        this.policy = storage.getFsyncPolicy();
+        this.intervalMillis = storage.getFsyncInterval();
+    }
+
+    synchronized void move(int move) throws IOException {
+        enqueue(move);
+    }
+
+    synchronized void undo(int move) throws IOException {
+        enqueue(move | UNDO);
+    }
+
+    // Blocks until everything submitted so far is on disk
+    synchronized void flush() throws IOException {
+        try {
+            while (completed < submitted && failure == null)
+                wait();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Interrupted while flushing moves");
+        }
+
+        if (failure != null)
+            throw failure;
+    }
+
+    // Flushes, then forces the journal and the board to disk whatever the policy
+    void sync() throws IOException {
+        flush();
+        journal.force();
+        storage.syncCurrentGame();
+    }
+
+    int[] readAll() throws IOException {
+        flush();
+        return journal.readAll();
+    }
+
+    @Override
+    public void close() throws IOException {
+        synchronized (this) {
+            closed = true;
+            try {
+                while (scheduled)
+                    wait();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+
+        // No drain task runs past this point
+        try {
+            if (dirty) {
+                journal.force();
+                storage.syncCurrentGame();
+            }
+        } finally {
+            journal.close();
+        }
+
+        synchronized (this) {
+            if (failure != null)
+                throw failure;
+        }
+    }
+
+    private void enqueue(int op) throws IOException {
+        if (closed)
+            throw new IllegalStateException("Writer is closed");
+        if (failure != null)
+            throw failure;
+
+        if (pendingCount == pending.length) {
+            int[] grown = new int[pending.length * 2];
+            System.arraycopy(pending, 0, grown, 0, pendingCount);
+            pending = grown;
+        }
+
+        pending[pendingCount++] = op;
+        submitted++;
+        schedule();
+    }
+
+    // Called holding this
+    private void schedule() {
+        if (!scheduled) {
+            scheduled = true;
+            EXECUTOR.execute(this::drain);
+        }
+    }
+
+    private synchronized void intervalElapsed() {
+        timerSet = false;
+        if (!closed) {
+            syncDue = true;
+            schedule();
+        }
+    }
+
+    private void drain() {
+        while (true) {
+            int n;
+            boolean force;
+            boolean failed;
+
+            synchronized (this) {
+                failed = failure != null;
+                n = pendingCount;
+                force = syncDue;
+                syncDue = false;
+
+                if (n == 0 && !force) {
+                    scheduled = false;
+                    notifyAll();
+                    return;
+                }
+
+                int[] swap = batch;
+                batch = pending;
+                pending = swap.length >= batch.length ? swap : new int[batch.length];
+                pendingCount = 0;
+            }
+
+            // Ops queued before a failure are dropped but still counted, so flush() reports it
+            try {
+                if (!failed && n > 0)
+                    process(batch, n);
+
+                if (!failed && dirty && (force || policy == FsyncPolicy.EVERY_MOVE)) {
+                    journal.force();
+                    storage.syncCurrentGame();
+                    dirty = false;
+                }
+            } catch (IOException | RuntimeException e) {
+                synchronized (this) {
+                    failure = e instanceof IOException io ? io : new IOException(e.getMessage(), e);
+                }
+            }
+
+            synchronized (this) {
+                completed += n;
+                notifyAll();
+
+                if (dirty && failure == null && policy == FsyncPolicy.INTERVAL && !timerSet && !closed) {
+                    timerSet = true;
+                    EXECUTOR.schedule(this::intervalElapsed, intervalMillis, TimeUnit.MILLISECONDS);
+                }
+            }
+        }
+    }
+
+    private void process(int[] ops, int n) throws IOException {
+        int k = 0;
+        for (int i = 0; i < n; i++) {
+            int op = ops[i];
+            boolean cancels = (op & UNDO) != 0
+                    && k > 0
+                    && ops[k - 1] == (op & ~UNDO);
+            if (cancels)
+                k--;
+            else
+                ops[k++] = op;
+        }
+
+        if (k > 0)
+            dirty = true;
+
+        int i = 0;
+        while (i < k) {
+            boolean undo = (ops[i] & UNDO) != 0;
+            int j = i;
+            while (j < k && ((ops[j] & UNDO) != 0) == undo)
+                j++;
+
+            if (undo) {
+                for (int m = i; m < j; m++) {
+                    int move = ops[m] & ~UNDO;
+                    storage.saveCurrentCell(MoveTree.row(move), MoveTree.col(move), MoveTree.prevValue(move));
+                }
+                journal.truncate(j - i);
+            } else {
+                journal.append(ops, i, j - i);
+                if (policy == FsyncPolicy.EVERY_MOVE)
+                    journal.force();
+                for (int m = i; m < j; m++) {
+                    int move = ops[m];
+                    storage.saveCurrentCell(MoveTree.row(move), MoveTree.col(move), MoveTree.newValue(move));
+                }
+            }
+
+            i = j;
+        }
+    }
+}
@@ -0,0 +1,142 @@
+package verifier;
+
+import java.util.Arrays;
+
+/**
+ * Incremental verifier that keeps row, column and box occupancy as 9-bit masks.
+ * Bit (v - 1) of a mask is set when digit v is present in that unit.
+ * place/clear update the state in O(1), verify(board) reuses the same
+ * buffers so it never allocates.
+ * Instances are not thread safe, use one verifier per board.
+ */
+public class BitboardVerifier {
+
+    private static final int ALL = 0x1FF;
+
+    private final int[] rowMask = new int[9];
+    private final int[] colMask = new int[9];
+    private final int[] boxMask = new int[9];
+
+    // How many times each digit appears in each of the 27 units
+    private final byte[] counts = new byte[27 * 9];
+    private final byte[] cells = new byte[81];
+    private int filled;
+    private int conflicts;
+
+    public VerificationResult verify(int[][] board) {
+        load(board);
+        return result();
+    }
+
+    public void load(int[][] board) {
+        reset();
+        for (int r = 0; r < 9; r++)
+            for (int c = 0; c < 9; c++)
+                if (board[r][c] != 0)
+                    place(r, c, board[r][c]);
+    }
+
+    public void reset() {
+        Arrays.fill(rowMask, 0);
+        Arrays.fill(colMask, 0);
+        Arrays.fill(boxMask, 0);
+        Arrays.fill(counts, (byte) 0);
+        Arrays.fill(cells, (byte) 0);
+        filled = 0;
+        conflicts = 0;
+    }
+
+    /**
+     * Puts value into the cell, replacing whatever was there.
+     * Returns false when the value clashes with a digit already in its row, column or box.
+     */
+    public boolean place(int row, int col, int value) {
+        clear(row, col);
+
+        if (value == 0)
+            return true;
+
+        int d = value - 1;
+        int bit = 1 << d;
+        int box = boxOf(row, col);
+        int before = conflicts;
+
+        if (counts[row * 9 + d]++ > 0) conflicts++;
+        if (counts[(9 + col) * 9 + d]++ > 0) conflicts++;
+        if (counts[(18 + box) * 9 + d]++ > 0) conflicts++;
+
+        rowMask[row] |= bit;
+        colMask[col] |= bit;
+        boxMask[box] |= bit;
+        cells[row * 9 + col] = (byte) value;
+        filled++;
+
+        return conflicts == before;
+    }
+
+    public void clear(int row, int col) {
+        int value = cells[row * 9 + col];
+
+        if (value == 0)
+            return;
+
+        int d = value - 1;
+        int bit = 1 << d;
+        int box = boxOf(row, col);
+
+        if (--counts[row * 9 + d] > 0) conflicts--;
+        else rowMask[row] &= ~bit;
+
+        if (--counts[(9 + col) * 9 + d] > 0) conflicts--;
+        else colMask[col] &= ~bit;
+
+        if (--counts[(18 + box) * 9 + d] > 0) conflicts--;
+        else boxMask[box] &= ~bit;
+
+        cells[row * 9 + col] = 0;
+        filled--;
+    }
+
+    public int get(int row, int col) {
+        return cells[row * 9 + col];
+    }
+
+    // Digits that can still go into the cell without a clash
+    public int candidates(int row, int col) {
+        return ~(rowMask[row] | colMask[col] | boxMask[boxOf(row, col)]) & ALL;
+    }
+
+    public boolean canPlace(int row, int col, int value) {
+        return (candidates(row, col) & (1 << (value - 1))) != 0;
+    }
+
+    // True when the cell's digit appears again in its row, column or box
+    public boolean isConflicting(int row, int col) {
+        int value = cells[row * 9 + col];
+        if (value == 0)
+            return false;
+
+        int d = value - 1;
+        return counts[row * 9 + d] > 1
+                || counts[(9 + col) * 9 + d] > 1
+                || counts[(18 + boxOf(row, col)) * 9 + d] > 1;
+    }
+
+    public boolean hasConflicts() {
+        return conflicts > 0;
+    }
+
+    public int countEmptyCells() {
+        return 81 - filled;
+    }
+
+    public VerificationResult result() {
+        if (conflicts > 0)
+            return VerificationResult.INVALID;
+        return filled == 81 ? VerificationResult.VALID : VerificationResult.INCOMPLETE;
+    }
+
+    private static int boxOf(int row, int col) {
+        return (row / 3) * 3 + col / 3;
+    }
+}
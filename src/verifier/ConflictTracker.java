@@ -0,0 +1,117 @@
+package verifier;
+
+/**
+ * Live set of conflicting cells for one board, updated move by move.
+ * A cell conflicts when its digit appears again in its row, column or box.
+ * place() only revisits the cell and those of its 20 peers holding the old or
+ * the new digit, and reports just the cells whose state flipped.
+ * Not thread safe, like the BitboardVerifier underneath.
+ */
+public class ConflictTracker {
+
+    private static final int[][] PEERS = buildPeers();
+
+    private final BitboardVerifier bits = new BitboardVerifier();
+    private final InvalidCells invalid = new InvalidCells();
+
+    public void load(int[][] board) {
+        bits.load(board);
+        invalid.clear();
+
+        for (int r = 0; r < 9; r++)
+            for (int c = 0; c < 9; c++)
+                if (bits.isConflicting(r, c))
+                    invalid.add(r, c);
+    }
+
+    /**
+     * Puts value into the cell and adds the cells that started conflicting to
+     * becameInvalid and those that stopped to becameValid.
+     * Returns false when the value clashes, like BitboardVerifier.place.
+     */
+    public boolean place(int row, int col, int value,
+                         InvalidCells becameInvalid, InvalidCells becameValid) {
+
+        int old = bits.get(row, col);
+        boolean ok = bits.place(row, col, value);
+
+        update(row, col, becameInvalid, becameValid);
+
+        for (int peer : PEERS[row * 9 + col]) {
+            int r = peer / 9;
+            int c = peer % 9;
+            int v = bits.get(r, c);
+
+            if (v != 0 && (v == old || v == value))
+                update(r, c, becameInvalid, becameValid);
+        }
+
+        return ok;
+    }
+
+    public int get(int row, int col) {
+        return bits.get(row, col);
+    }
+
+    // Digits that can still go into the cell without a clash, see BitboardVerifier.candidates
+    public int candidates(int row, int col) {
+        return bits.candidates(row, col);
+    }
+
+    public boolean isInvalid(int row, int col) {
+        return invalid.contains(row, col);
+    }
+
+    public InvalidCells getInvalidCells() {
+        return invalid.copy();
+    }
+
+    public boolean hasConflicts() {
+        return bits.hasConflicts();
+    }
+
+    public int countEmptyCells() {
+        return bits.countEmptyCells();
+    }
+
+    public VerificationResult result() {
+        return bits.result();
+    }
+
+    private void update(int row, int col, InvalidCells becameInvalid, InvalidCells becameValid) {
+        boolean now = bits.isConflicting(row, col);
+
+        if (now == invalid.contains(row, col))
+            return;
+
+        if (now) {
+            invalid.add(row, col);
+            becameInvalid.add(row, col);
+        } else {
+            invalid.remove(row, col);
+            becameValid.add(row, col);
+        }
+    }
+
+    // The 20 other cells sharing a row, column or box with each cell
+    private static int[][] buildPeers() {
+        int[][] peers = new int[81][20];
+
+        for (int i = 0; i < 81; i++) {
+            int r = i / 9;
+            int c = i % 9;
+            int n = 0;
+
+            for (int j = 0; j < 81; j++) {
+                int r2 = j / 9;
+                int c2 = j % 9;
+                boolean shared = r2 == r || c2 == c
+                        || (r2 / 3 == r / 3 && c2 / 3 == c / 3);
+
+                if (j != i && shared)
+                    peers[i][n++] = j;
+            }
+        }
+        return peers;
+    }
+}
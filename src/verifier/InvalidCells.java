@@ -1,25 +1,88 @@
 package verifier;
 
-import java.util.HashSet;
-import java.util.Set;
-
+/**
+ * Set of board cells packed into 81 bits, cell index is row * 9 + col.
+ * Cells 0..63 live in low, 64..80 in high.
+ */
 public class InvalidCells {
 
-    private final Set<String> cells = new HashSet<>();
+    private long low;
+    private long high;
+
+    public InvalidCells() {
+    }
+
+    private InvalidCells(long low, long high) {
+        this.low = low;
+        this.high = high;
+    }
 
     public void add(int row, int col) {
-        cells.add(row + "," + col);
+        int i = row * 9 + col;
+        if (i < 64) low |= 1L << i;
+        else high |= 1L << (i - 64);
+    }
+
+    public void remove(int row, int col) {
+        int i = row * 9 + col;
+        if (i < 64) low &= ~(1L << i);
+        else high &= ~(1L << (i - 64));
     }
 
     public boolean contains(int row, int col) {
-        return cells.contains(row + "," + col);
+        int i = row * 9 + col;
+        if (i < 64) return (low & (1L << i)) != 0;
+        return (high & (1L << (i - 64))) != 0;
     }
 
     public boolean isEmpty() {
-        return cells.isEmpty();
+        return (low | high) == 0;
+    }
+
+    public int size() {
+        return Long.bitCount(low) + Long.bitCount(high);
+    }
+
+    public void clear() {
+        low = 0;
+        high = 0;
+    }
+
+    public InvalidCells copy() {
+        return new InvalidCells(low, high);
+    }
+
+    public InvalidCells union(InvalidCells other) {
+        return new InvalidCells(low | other.low, high | other.high);
+    }
+
+    public InvalidCells intersect(InvalidCells other) {
+        return new InvalidCells(low & other.low, high & other.high);
+    }
+
+    /**
+     * Returns the index of the first cell at or after from, or -1 when there is none.
+     * Iterate with: for (int i = cells.nextCell(0); i >= 0; i = cells.nextCell(i + 1))
+     */
+    public int nextCell(int from) {
+        if (from < 64) {
+            long bits = low & (-1L << from);
+            if (bits != 0) return Long.numberOfTrailingZeros(bits);
+            from = 64;
+        }
+        if (from >= 81) return -1;
+
+        long bits = high & (-1L << (from - 64));
+        return bits != 0 ? 64 + Long.numberOfTrailingZeros(bits) : -1;
     }
 
-    public Set<String> getAll() {
-        return cells;
+    // true where the cell is NOT in the set, the layout the GUI highlights from
+    public boolean[][] toValidityGrid() {
+        boolean[][] ok = new boolean[9][9];
+        for (int i = 0; i < 81; i++) {
+            long bit = i < 64 ? low & (1L << i) : high & (1L << (i - 64));
+            ok[i / 9][i % 9] = bit == 0;
+        }
+        return ok;
     }
 }
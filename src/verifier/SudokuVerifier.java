@@ -54,51 +54,42 @@ public class SudokuVerifier {
 
         InvalidCells invalid = new InvalidCells();
 
-        for (int r = 0; r < 9; r++) {
-            int[] count = new int[10];
-            for (int c = 0; c < 9; c++)
-                if (board[r][c] != 0)
-                    count[board[r][c]]++;
-
-            for (int c = 0; c < 9; c++) {
-                int v = board[r][c];
-                if (v != 0 && count[v] > 1)
-                    invalid.add(r, c);
+        // Units 0..8 are rows, 9..17 columns, 18..26 boxes
+        for (int u = 0; u < 27; u++) {
+            int seen = 0;
+            int dup = 0;
+
+            for (int k = 0; k < 9; k++) {
+                int v = board[unitRow(u, k)][unitCol(u, k)];
+                if (v == 0) continue;
+                int bit = 1 << (v - 1);
+                dup |= seen & bit;
+                seen |= bit;
             }
-        }
 
-        for (int c = 0; c < 9; c++) {
-            int[] count = new int[10];
-            for (int r = 0; r < 9; r++)
-                if (board[r][c] != 0)
-                    count[board[r][c]]++;
+            if (dup == 0) continue;
 
-            for (int r = 0; r < 9; r++) {
+            for (int k = 0; k < 9; k++) {
+                int r = unitRow(u, k);
+                int c = unitCol(u, k);
                 int v = board[r][c];
-                if (v != 0 && count[v] > 1)
+                if (v != 0 && (dup & (1 << (v - 1))) != 0)
                     invalid.add(r, c);
             }
         }
 
-        for (int br = 0; br < 3; br++) {
-            for (int bc = 0; bc < 3; bc++) {
-
-                int[] count = new int[10];
-                for (int r = br * 3; r < br * 3 + 3; r++)
-                    for (int c = bc * 3; c < bc * 3 + 3; c++)
-                        if (board[r][c] != 0)
-                            count[board[r][c]]++;
-
-                for (int r = br * 3; r < br * 3 + 3; r++)
-                    for (int c = bc * 3; c < bc * 3 + 3; c++) {
-                        int v = board[r][c];
-                        if (v != 0 && count[v] > 1)
-                            invalid.add(r, c);
-                    }
-            }
-        }
-
         return invalid;
     }
 
+    private static int unitRow(int unit, int k) {
+        if (unit < 9) return unit;
+        if (unit < 18) return k;
+        return ((unit - 18) / 3) * 3 + k / 3;
+    }
+
+    private static int unitCol(int unit, int k) {
+        if (unit < 9) return k;
+        if (unit < 18) return unit - 9;
+        return ((unit - 18) % 3) * 3 + k % 3;
+    }
 }
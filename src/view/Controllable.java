@@ -1,6 +1,7 @@
 package view;
 
 import controller.exceptions.*;
+import solver.Hint;
 
 import java.io.IOException;
 
@@ -14,6 +15,9 @@ public interface Controllable {
     void driveGames(String sourcePath)
             throws SolutionInvalidException;
 
+    void driveGames()
+            throws SolutionInvalidException;
+
     boolean[][] verifyGame(int[][] game);
 
     int[][] solveGame(int[][] game)
@@ -21,4 +25,11 @@ public interface Controllable {
 
     void logUserAction(UserAction userAction)
             throws IOException;
+
+    // Bit (v - 1) set when v fits the cell, 0 for a filled cell
+    int getCandidates(int row, int col);
+
+    int[][] getCandidateGrid();
+
+    Hint nextHint();
 }
\ No newline at end of file
@@ -0,0 +1,293 @@
+package view;
+
+import model.DifficultyEnum;
+import model.Game;
+import solver.SearchControl;
+import solver.SolveResult;
+import solver.SolverSelector;
+import storage.BoardFormatException;
+import storage.BoardParser;
+import storage.MappedFileStorage;
+import storage.Storage;
+import verifier.SudokuVerifier;
+import verifier.VerificationResult;
+import controller.exceptions.InvalidGame;
+
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Paths;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Headless entry point for bulk work on puzzle files, without the Swing UI.
+ *
+ *   solve  <input|-> <output|-> [threads]   verify and solve every puzzle
+ *   import <input|-> <easy|medium|hard>     append puzzles to a difficulty pool
+ *
+ * Input is any format BoardParser reads, typically one 81-character puzzle per line.
+ * solve writes one line per puzzle, in input order:
+ *   index  status  micros  board
+ * where status is SOLVED, COMPLETE, INVALID, UNSOLVABLE or ERROR. A line that
+ * is not a board is reported INVALID, and a puzzle whose solver threw is
+ * reported ERROR, both with an empty board column, and the run goes on.
+ */
+public class SudokuCLI {
+
+    private static final String[] STATUS = {"SOLVED", "COMPLETE", "INVALID", "UNSOLVABLE", "ERROR"};
+
+    // Both are safe to share, so the worker threads use the same ones
+    private static final SudokuVerifier verifier = new SudokuVerifier();
+    private static final SolverSelector solvers = new SolverSelector();
+
+    public static void main(String[] args) {
+        if (args.length < 3) {
+            usage();
+            System.exit(2);
+        }
+
+        try {
+            switch (args[0]) {
+                case "solve" -> solve(args[1], args[2],
+                        args.length > 3 ? parseThreads(args[3])
+                                : Runtime.getRuntime().availableProcessors());
+                case "import" -> importPuzzles(args[1], args[2]);
+                default -> {
+                    usage();
+                    System.exit(2);
+                }
+            }
+        } catch (Exception e) {
+            System.err.println("Error: " + (e.getMessage() != null ? e.getMessage() : e));
+            System.exit(1);
+        }
+    }
+
+    private static int parseThreads(String arg) {
+        int threads;
+        try {
+            threads = Integer.parseInt(arg);
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("threads must be a number, got: " + arg);
+        }
+
+        if (threads < 1)
+            throw new IllegalArgumentException("threads must be at least 1, got: " + threads);
+        return threads;
+    }
+
+    private static void usage() {
+        System.err.println("Usage:");
+        System.err.println("  solve  <input|-> <output|-> [threads]");
+        System.err.println("  import <input|-> <easy|medium|hard>");
+    }
+
+    // ================== Solve ==================
+
+    private static void solve(String input, String output, int threads)
+            throws IOException, InterruptedException {
+
+        int workers = Math.max(1, threads);
+        ExecutorService pool = Executors.newFixedThreadPool(workers);
+
+        // Futures queued in input order; the bound caps how far reading runs ahead of writing
+        BlockingQueue<Future<Result>> pending = new ArrayBlockingQueue<>(workers * 64);
+        Future<Result> end = CompletableFuture.completedFuture(null);
+        AtomicBoolean failed = new AtomicBoolean();
+
+        long start = System.nanoTime();
+        int[] totals = new int[STATUS.length];
+        long[] nodes = new long[1];
+
+        try (BoardParser parser = new BoardParser(open(input));
+             Writer out = create(output)) {
+
+            Thread writer = new Thread(() -> drain(pending, end, out, totals, nodes, failed), "cli-writer");
+            writer.start();
+
+            try {
+                int index = 0;
+                int[] cells = new int[81];
+
+                // Stops early once the writer failed, the rest could not be written anyway
+                while (!failed.get()) {
+                    int n = index;
+                    try {
+                        if (!parser.next(cells))
+                            break;
+                    } catch (BoardFormatException e) {
+                        index++;
+                        pending.put(CompletableFuture.completedFuture(new Result(n, 2, 0, 0, null)));
+                        continue;
+                    }
+                    index++;
+
+                    int[][] board = new int[9][9];
+                    for (int i = 0; i < 81; i++)
+                        board[i / 9][i % 9] = cells[i];
+
+                    pending.put(pool.submit(() -> process(n, board)));
+                }
+            } finally {
+                pending.put(end);
+                writer.join();
+            }
+        } finally {
+            pool.shutdownNow();
+        }
+
+        long ms = (System.nanoTime() - start) / 1_000_000;
+        int total = 0;
+        StringBuilder sb = new StringBuilder();
+        for (int i = 0; i < STATUS.length; i++) {
+            total += totals[i];
+            sb.append(' ').append(STATUS[i]).append('=').append(totals[i]);
+        }
+        System.err.println(total + " puzzles in " + ms + " ms:" + sb + " nodes=" + nodes[0]);
+
+        if (failed.get())
+            throw new IOException("Output incomplete, stopped after the write failure");
+    }
+
+    private static Result process(int index, int[][] board) {
+        long t0 = System.nanoTime();
+        long nodes = 0;
+        int status;
+
+        VerificationResult check = verifier.verify(board);
+
+        if (check == VerificationResult.INVALID) {
+            status = 2;
+        } else if (check == VerificationResult.VALID) {
+            status = 1;
+        } else {
+            try {
+                SolveResult result = solvers.select(board).run(board, new SearchControl());
+                int[] solution = result.getCells();
+                nodes = result.getNodes();
+                for (int i = 0; i < solution.length; i += 3)
+                    board[solution[i]][solution[i + 1]] = solution[i + 2];
+                status = 0;
+            } catch (InvalidGame e) {
+                status = 3;
+            }
+        }
+
+        return new Result(index, status, (System.nanoTime() - t0) / 1000, nodes, board);
+    }
+
+    // Keeps taking futures until the end marker even after a failure, so the reader never blocks.
+    // A puzzle whose solve threw is written as ERROR, only a failed write stops the output
+    private static void drain(BlockingQueue<Future<Result>> pending,
+                              Future<Result> end,
+                              Writer out,
+                              int[] totals,
+                              long[] nodes,
+                              AtomicBoolean failed) {
+        StringBuilder line = new StringBuilder(128);
+        int index = 0;
+
+        try {
+            for (Future<Result> f = pending.take(); f != end; f = pending.take(), index++) {
+                if (failed.get())
+                    continue;
+
+                Result r;
+                try {
+                    r = f.get();
+                } catch (ExecutionException e) {
+                    System.err.println("Puzzle " + index + " failed: " + e.getCause());
+                    r = new Result(index, 4, 0, 0, null);
+                }
+
+                totals[r.status]++;
+                nodes[0] += r.nodes;
+
+                line.setLength(0);
+                line.append(r.index).append('\t')
+                        .append(STATUS[r.status]).append('\t')
+                        .append(r.micros).append('\t');
+                if (r.board != null)
+                    for (int[] row : r.board)
+                        for (int v : row)
+                            line.append((char) ('0' + v));
+                line.append('\n');
+
+                try {
+                    out.write(line.toString());
+                } catch (IOException e) {
+                    System.err.println("Writer failed: " + e.getMessage());
+                    failed.set(true);
+                }
+            }
+            out.flush();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (IOException e) {
+            System.err.println("Writer failed: " + e.getMessage());
+            failed.set(true);
+        }
+    }
+
+    // ================== Import ==================
+
+    private static void importPuzzles(String input, String level)
+            throws IOException {
+
+        DifficultyEnum diff = DifficultyEnum.valueOf(level.toUpperCase());
+        int imported = 0;
+        int skipped = 0;
+
+        try (BoardParser parser = new BoardParser(open(input));
+             Storage storage = new MappedFileStorage(Paths.get("storage"))) {
+            int[][] board = new int[9][9];
+
+            while (true) {
+                try {
+                    if (!parser.next(board))
+                        break;
+                } catch (BoardFormatException e) {
+                    skipped++;
+                    continue;
+                }
+
+                if (verifier.verify(board) != VerificationResult.INCOMPLETE) {
+                    skipped++;
+                    continue;
+                }
+                storage.saveGeneratedGame(diff, new Game(board));
+                imported++;
+            }
+        }
+
+        System.err.println("Imported " + imported + " puzzles into " + diff
+                + " (skipped " + skipped + " malformed, invalid or complete)");
+    }
+
+    // ================== IO ==================
+
+    private static InputStream open(String path) throws IOException {
+        return path.equals("-") ? System.in : new FileInputStream(path);
+    }
+
+    private static Writer create(String path) throws IOException {
+        OutputStream os = path.equals("-") ? System.out : new FileOutputStream(path);
+        return new BufferedWriter(new OutputStreamWriter(os, StandardCharsets.US_ASCII), 64 * 1024);
+    }
+
+    private static final class Result {
+        private final int index;
+        private final int status;
+        private final long micros;
+        private final long nodes;
+        private final int[][] board;
+
+        Result(int index, int status, long micros, long nodes, int[][] board) {
+            this.index = index;
+            this.status = status;
+            this.micros = micros;
+            this.nodes = nodes;
+            this.board = board;
+        }
+    }
+}
@@ -1,31 +1,47 @@
 package view;
 
+import controller.BackgroundTask;
 import controller.ControllerAdapter;
 import controller.ControllerFacade;
 import controller.exceptions.*;
+import solver.Hint;
+import verifier.InvalidCells;
 
 import javax.swing.*;
 import javax.swing.border.LineBorder;
 import java.awt.*;
 import java.io.IOException;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletionException;
+import java.util.function.Consumer;
 
 public class SudokuGUI extends JFrame {
 
     private final ControllerAdapter controller = new ControllerAdapter(new ControllerFacade());
     private JTextField[][] cells = new JTextField[9][9];
-    private JButton verifyBtn, solveBtn, undoBtn;
+    private JButton verifyBtn, solveBtn, undoBtn, redoBtn, hintBtn, cancelBtn;
     private JLabel statusLabel;
     private int[][] initialBoard;
 
+    // The one background task the buttons may cancel, touched only on the EDT
+    private BackgroundTask<?> running;
+    private Timer progressTimer;
+
     public SudokuGUI() {
         setTitle("Sudoku Game");
         setDefaultCloseOperation(EXIT_ON_CLOSE);
+        addWindowListener(new java.awt.event.WindowAdapter() {
+            public void windowClosing(java.awt.event.WindowEvent evt) {
+                closeController();
+            }
+        });
         setLayout(new BorderLayout(10, 10));
 
         initializeGame();
 
         add(createBoardPanel(), BorderLayout.CENTER);
         add(createControlPanel(), BorderLayout.SOUTH);
+        controller.addBoardListener(this::onCellChanged);
 
         pack();
         setLocationRelativeTo(null);
@@ -75,15 +91,36 @@ public class SudokuGUI extends JFrame {
             }
 
             // Need to generate games
-            JFileChooser fileChooser = new JFileChooser();
-            fileChooser.setDialogTitle("Select Solved Sudoku File");
+            String[] sources = {"Generate", "Load from file"};
+            int source = JOptionPane.showOptionDialog(
+                    this,
+                    "No puzzles available. Generate new ones or load a solved board?",
+                    "Generate Games",
+                    JOptionPane.DEFAULT_OPTION,
+                    JOptionPane.QUESTION_MESSAGE,
+                    null,
+                    sources,
+                    sources[0]
+            );
+
+            boolean generated = false;
 
-            int result = fileChooser.showOpenDialog(this);
+            if (source == 0) {
+                generated = generateWithProgress();
+            } else if (source == 1) {
+                JFileChooser fileChooser = new JFileChooser();
+                fileChooser.setDialogTitle("Select Solved Sudoku File");
 
-            if (result == JFileChooser.APPROVE_OPTION) {
-                String path = fileChooser.getSelectedFile().getAbsolutePath();
-                controller.driveGames(path);
+                int result = fileChooser.showOpenDialog(this);
+
+                if (result == JFileChooser.APPROVE_OPTION) {
+                    String path = fileChooser.getSelectedFile().getAbsolutePath();
+                    controller.driveGames(path);
+                    generated = true;
+                }
+            }
 
+            if (generated) {
                 JOptionPane.showMessageDialog(
                         this,
                         "Games generated successfully!",
@@ -125,6 +162,38 @@ public class SudokuGUI extends JFrame {
         }
     }
 
+    // Runs generation off the EDT behind a modal dialog, which keeps events flowing until it closes
+    private boolean generateWithProgress() throws Exception {
+        BackgroundTask<Void> task = controller.driveGamesAsync();
+
+        JLabel progress = new JLabel("Generating puzzles...");
+        JButton cancel = new JButton("Cancel");
+        cancel.addActionListener(e -> task.cancel());
+
+        JOptionPane pane = new JOptionPane(progress, JOptionPane.INFORMATION_MESSAGE,
+                JOptionPane.DEFAULT_OPTION, null, new Object[]{cancel});
+        JDialog dialog = pane.createDialog(this, "Generate Games");
+        dialog.setDefaultCloseOperation(WindowConstants.DO_NOTHING_ON_CLOSE);
+
+        Timer timer = new Timer(100, e ->
+                progress.setText("Generating puzzles... " + task.getElapsedMillis() + " ms"));
+        timer.start();
+
+        task.getFuture().whenComplete((r, e) -> SwingUtilities.invokeLater(dialog::dispose));
+        if (!task.isDone())
+            dialog.setVisible(true);
+        timer.stop();
+
+        try {
+            task.getFuture().join();
+            return true;
+        } catch (CancellationException e) {
+            return false;
+        } catch (CompletionException e) {
+            throw e.getCause() instanceof Exception ex ? ex : e;
+        }
+    }
+
     private void copyInitialBoard() {
         int[][] currentBoard = getCurrentBoard();
         initialBoard = new int[9][9];
@@ -142,9 +211,11 @@ public class SudokuGUI extends JFrame {
         panel.setBorder(BorderFactory.createEmptyBorder(10, 10, 10, 10));
         panel.setBackground(Color.BLACK);
 
+        InvalidCells invalid = controller.getInvalidCells();
+
         for (int r = 0; r < 9; r++) {
             for (int c = 0; c < 9; c++) {
-                cells[r][c] = createCell(r, c);
+                cells[r][c] = createCell(r, c, invalid.contains(r, c));
                 panel.add(cells[r][c]);
             }
         }
@@ -152,16 +223,26 @@ public class SudokuGUI extends JFrame {
         return panel;
     }
 
-    private JTextField createCell(int row, int col) {
-        JTextField field = new JTextField();
+    private JTextField createCell(int row, int col, boolean invalid) {
+        JTextField field = new JTextField() {
+            // Pencil marks, looked up only when the tooltip is about to show
+            @Override
+            public String getToolTipText(java.awt.event.MouseEvent e) {
+                int mask = controller.getCandidates(row, col);
+                if (mask == 0)
+                    return null;
+
+                StringBuilder sb = new StringBuilder("Candidates:");
+                for (int v = 1; v <= 9; v++)
+                    if ((mask & (1 << (v - 1))) != 0)
+                        sb.append(' ').append(v);
+                return sb.toString();
+            }
+        };
+        field.setToolTipText("");
         field.setHorizontalAlignment(JTextField.CENTER);
         field.setFont(new Font("Arial", Font.BOLD, 20));
-
-        if ((row / 3 + col / 3) % 2 == 0) {
-            field.setBackground(new Color(240, 240, 240));
-        } else {
-            field.setBackground(Color.WHITE);
-        }
+        field.setBackground(cellBackground(row, col));
 
         int[][] board = getCurrentBoard();
         int value = board[row][col];
@@ -180,7 +261,7 @@ public class SudokuGUI extends JFrame {
             field.setForeground(Color.BLUE);
         }
 
-        updateCellBorder(field, row, col, false);
+        updateCellBorder(field, row, col, invalid);
 
         field.addActionListener(e -> handleCellInput(row, col, field));
 
@@ -193,6 +274,25 @@ public class SudokuGUI extends JFrame {
         return field;
     }
 
+    private static Color cellBackground(int row, int col) {
+        return (row / 3 + col / 3) % 2 == 0 ? new Color(240, 240, 240) : Color.WHITE;
+    }
+
+    // Repaints only the cells whose conflict state the move flipped
+    private void onCellChanged(int row, int col, int value,
+                               InvalidCells becameInvalid,
+                               InvalidCells becameValid,
+                               int emptyCells) {
+
+        for (int i = becameInvalid.nextCell(0); i >= 0; i = becameInvalid.nextCell(i + 1))
+            updateCellBorder(cells[i / 9][i % 9], i / 9, i % 9, true);
+
+        for (int i = becameValid.nextCell(0); i >= 0; i = becameValid.nextCell(i + 1))
+            updateCellBorder(cells[i / 9][i % 9], i / 9, i % 9, false);
+
+        updateSolveButton(emptyCells);
+    }
+
     private void updateCellBorder(JTextField field, int row, int col, boolean isInvalid) {
         int top = (row % 3 == 0) ? 2 : 0;
         int left = (col % 3 == 0) ? 2 : 0;
@@ -238,7 +338,6 @@ public class SudokuGUI extends JFrame {
 
             statusLabel.setText("Move applied: (" + row + ", " + col + ") = " + value);
 
-            updateSolveButton();
             checkCompletion();
 
         } catch (NumberFormatException ex) {
@@ -278,9 +377,22 @@ public class SudokuGUI extends JFrame {
         undoBtn = new JButton("Undo");
         undoBtn.addActionListener(e -> handleUndo());
 
+        redoBtn = new JButton("Redo");
+        redoBtn.addActionListener(e -> handleRedo());
+
+        hintBtn = new JButton("Hint");
+        hintBtn.addActionListener(e -> handleHint());
+
+        cancelBtn = new JButton("Cancel");
+        cancelBtn.addActionListener(e -> handleCancel());
+        cancelBtn.setEnabled(false);
+
         btnPanel.add(verifyBtn);
         btnPanel.add(solveBtn);
         btnPanel.add(undoBtn);
+        btnPanel.add(redoBtn);
+        btnPanel.add(hintBtn);
+        btnPanel.add(cancelBtn);
 
         statusLabel = new JLabel("Ready");
         statusLabel.setHorizontalAlignment(SwingConstants.CENTER);
@@ -292,37 +404,22 @@ public class SudokuGUI extends JFrame {
     }
 
     private void updateSolveButton() {
-        int[][] board = getCurrentBoard();
-        int empty = 0;
-        for (int r = 0; r < 9; r++)
-            for (int c = 0; c < 9; c++)
-                if (board[r][c] == 0)
-                    empty++;
+        updateSolveButton(controller.getEmptyCount());
+    }
 
-        solveBtn.setEnabled(empty == 5);
+    private void updateSolveButton(int empty) {
+        solveBtn.setEnabled(empty > 0);
 
-        if (empty == 5) {
-            solveBtn.setToolTipText("Click to solve remaining 5 cells");
+        if (empty > 0) {
+            solveBtn.setToolTipText("Click to solve remaining " + empty + " cells");
         } else {
-            solveBtn.setToolTipText("Solver only works with exactly 5 empty cells (current: " + empty + ")");
+            solveBtn.setToolTipText("No empty cells to solve");
         }
     }
 
+    // Borders already follow every move, so verifying only reports the live count
     private void handleVerify() {
-        int[][] board = getCurrentBoard();
-        boolean[][] valid = controller.verifyGame(board);
-
-        for (int r = 0; r < 9; r++) {
-            for (int c = 0; c < 9; c++) {
-                updateCellBorder(cells[r][c], r, c, !valid[r][c]);
-            }
-        }
-
-        int invalidCount = 0;
-        for (int r = 0; r < 9; r++)
-            for (int c = 0; c < 9; c++)
-                if (!valid[r][c])
-                    invalidCount++;
+        int invalidCount = controller.getInvalidCells().size();
 
         if (invalidCount == 0) {
             statusLabel.setText("✓ All cells are valid!");
@@ -338,41 +435,126 @@ public class SudokuGUI extends JFrame {
     }
 
     private void handleSolve() {
-        try {
-            int[][] board = getCurrentBoard();
-            int[][] solution = controller.solveGame(board);
-
-            StringBuilder sb = new StringBuilder("Solution found:\n\n");
-            for (int[] cell : solution) {
-                int r = cell[0];
-                int c = cell[1];
-                int val = cell[2];
+        runInBackground(controller.solveGameAsync(getCurrentBoard()), "Solving", this::showSolution);
+    }
 
-                cells[r][c].setText(String.valueOf(val));
-                cells[r][c].setForeground(new Color(0, 150, 0)); // Green for solved
+    private void handleCancel() {
+        if (running != null)
+            running.cancel();
+    }
 
-                sb.append(String.format("Cell (%d, %d) = %d\n", r, c, val));
+    /**
+     * Starts task with the board locked and the Cancel button live, shows its
+     * progress in the status line and hands the result to onDone on the EDT.
+     */
+    private <T> void runInBackground(BackgroundTask<T> task, String label, Consumer<T> onDone) {
+        running = task;
+        setBusy(true);
+
+        progressTimer = new Timer(100, e -> statusLabel.setText(String.format(
+                "%s... %,d nodes, %,d ms", label, task.getNodes(), task.getElapsedMillis())));
+        progressTimer.start();
+
+        task.getFuture().whenComplete((result, error) -> SwingUtilities.invokeLater(() -> {
+            progressTimer.stop();
+            running = null;
+            setBusy(false);
+
+            Throwable cause = error instanceof CompletionException ? error.getCause() : error;
+
+            if (cause == null) {
+                onDone.accept(result);
+            } else if (cause instanceof CancellationException) {
+                statusLabel.setText(label + " cancelled after " + task.getElapsedMillis() + " ms");
+            } else if (cause instanceof InvalidGame) {
+                statusLabel.setText("Ready");
+                JOptionPane.showMessageDialog(
+                        this,
+                        cause.getMessage(),
+                        "Cannot Solve",
+                        JOptionPane.WARNING_MESSAGE
+                );
+            } else {
+                statusLabel.setText("Ready");
+                JOptionPane.showMessageDialog(
+                        this,
+                        "Error: " + cause.getMessage(),
+                        "Error",
+                        JOptionPane.ERROR_MESSAGE
+                );
             }
+        }));
+    }
 
-            JOptionPane.showMessageDialog(
-                    this,
-                    sb.toString(),
-                    "Solution Applied",
-                    JOptionPane.INFORMATION_MESSAGE
-            );
+    private void setBusy(boolean busy) {
+        verifyBtn.setEnabled(!busy);
+        undoBtn.setEnabled(!busy);
+        redoBtn.setEnabled(!busy);
+        hintBtn.setEnabled(!busy);
+        cancelBtn.setEnabled(busy);
+
+        for (int r = 0; r < 9; r++)
+            for (int c = 0; c < 9; c++)
+                cells[r][c].setEnabled(!busy);
 
-            statusLabel.setText("Solution applied successfully");
+        if (busy)
+            solveBtn.setEnabled(false);
+        else
             updateSolveButton();
-            checkCompletion();
+    }
 
-        } catch (InvalidGame e) {
-            JOptionPane.showMessageDialog(
-                    this,
-                    e.getMessage(),
-                    "Cannot Solve",
-                    JOptionPane.WARNING_MESSAGE
-            );
+    private void showSolution(int[][] solution) {
+        StringBuilder sb = new StringBuilder("Solution found:\n\n");
+        for (int[] cell : solution) {
+            int r = cell[0];
+            int c = cell[1];
+            int val = cell[2];
+
+            cells[r][c].setText(String.valueOf(val));
+            cells[r][c].setForeground(new Color(0, 150, 0)); // Green for solved
+
+            sb.append(String.format("Cell (%d, %d) = %d\n", r, c, val));
         }
+
+        JOptionPane.showMessageDialog(
+                this,
+                sb.toString(),
+                "Solution Applied",
+                JOptionPane.INFORMATION_MESSAGE
+        );
+
+        statusLabel.setText("Solution applied successfully");
+        updateSolveButton();
+        checkCompletion();
+    }
+
+    // Shows the cheapest logical step and marks its cells for a moment, without playing it
+    private void handleHint() {
+        Hint hint = controller.nextHint();
+
+        if (hint == null) {
+            statusLabel.setText(controller.hasConflicts()
+                    ? "Fix the highlighted conflicts first"
+                    : "No simple hint available");
+            return;
+        }
+
+        InvalidCells marked = hint.getEliminations().copy();
+        if (hint.isPlacement())
+            marked.add(hint.getRow(), hint.getCol());
+
+        Color color = hint.isPlacement() ? new Color(255, 240, 150) : new Color(255, 200, 200);
+        for (int i = marked.nextCell(0); i >= 0; i = marked.nextCell(i + 1))
+            cells[i / 9][i % 9].setBackground(color);
+
+        statusLabel.setText("Hint - " + hint);
+
+        Timer timer = new Timer(2000, e -> {
+            for (int i = marked.nextCell(0); i >= 0; i = marked.nextCell(i + 1))
+                cells[i / 9][i % 9].setBackground(cellBackground(i / 9, i % 9));
+        });
+        timer.setRepeats(false);
+        timer.start();
     }
 
     private void handleUndo() {
@@ -390,10 +572,8 @@ public class SudokuGUI extends JFrame {
 
             cells[r][c].setText(val == 0 ? "" : String.valueOf(val));
             cells[r][c].setForeground(Color.BLUE);
-            updateCellBorder(cells[r][c], r, c, false);
 
             statusLabel.setText("Undone: Cell (" + r + ", " + c + ") restored to " + (val == 0 ? "empty" : val));
-            updateSolveButton();
 
         } catch (IOException e) {
             JOptionPane.showMessageDialog(
@@ -406,25 +586,39 @@ public class SudokuGUI extends JFrame {
         }
     }
 
-    private void checkCompletion() {
-        int[][] board = getCurrentBoard();
-        int empty = 0;
-        for (int r = 0; r < 9; r++)
-            for (int c = 0; c < 9; c++)
-                if (board[r][c] == 0)
-                    empty++;
+    private void handleRedo() {
+        if (!controller.canRedo()) {
+            statusLabel.setText("Nothing to redo");
+            return;
+        }
 
-        if (empty == 0) {
-            boolean[][] valid = controller.verifyGame(board);
+        try {
+            UserAction action = controller.redo();
 
-            boolean allValid = true;
-            for (int r = 0; r < 9; r++)
-                for (int c = 0; c < 9; c++)
-                    if (!valid[r][c])
-                        allValid = false;
+            int r = action.getRow();
+            int c = action.getCol();
+            int val = action.getNewValue();
+
+            cells[r][c].setText(val == 0 ? "" : String.valueOf(val));
+            cells[r][c].setForeground(Color.BLUE);
+
+            statusLabel.setText("Redone: Cell (" + r + ", " + c + ") set to " + (val == 0 ? "empty" : val));
+
+        } catch (IOException e) {
+            JOptionPane.showMessageDialog(
+                    this,
+                    "Error during redo: " + e.getMessage(),
+                    "Error",
+                    JOptionPane.ERROR_MESSAGE
+            );
+            e.printStackTrace();
+        }
+    }
 
-            if (allValid) {
-                controller.checkCompletion(board);
+    private void checkCompletion() {
+        if (controller.getEmptyCount() == 0) {
+            if (!controller.hasConflicts()) {
+                controller.checkCompletion(getCurrentBoard());
 
                 JOptionPane.showMessageDialog(
                         this,
@@ -440,6 +634,8 @@ public class SudokuGUI extends JFrame {
                         JOptionPane.YES_NO_OPTION
                 );
 
+                // The next window opens its own storage on the same files
+                closeController();
                 if (choice == JOptionPane.YES_OPTION) {
                     dispose();
                     SwingUtilities.invokeLater(SudokuGUI::new);
@@ -457,6 +653,15 @@ public class SudokuGUI extends JFrame {
         }
     }
 
+    // Flushes pending moves and releases the storage files
+    private void closeController() {
+        try {
+            controller.close();
+        } catch (IOException e) {
+            e.printStackTrace();
+        }
+    }
+
     public static void main(String[] args) {
         SwingUtilities.invokeLater(SudokuGUI::new);
     }